@@ -0,0 +1,71 @@
+package com.zerox.csm.config;
+
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Executors for work handed off the request thread
+@Configuration
+public class AsyncConfig {
+
+    // Declaring any Executor bean switches off Boot's default one, which Spring MVC needs
+    // for async responses such as StreamingResponseBody, so keep it under its usual names
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // Single thread: domain events are relayed one at a time, in the order they were stored
+    @Bean
+    public ThreadPoolTaskExecutor domainEventExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("domain-events-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Image resizing is CPU heavy; two workers keep it from starving request threads.
+    // When the queue is full the task is dropped and the image is resized on first request instead.
+    @Bean
+    public ThreadPoolTaskExecutor imageDerivativeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("image-derivatives-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // Single thread drains the inventory journal buffer; requests are coalesced so at most one is queued
+    @Bean
+    public ThreadPoolTaskExecutor inventoryJournalExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(4);
+        executor.setThreadNamePrefix("inventory-journal-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Bulk product imports run one at a time; further uploads wait in the queue until it is full
+    @Bean
+    public ThreadPoolTaskExecutor productImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(8);
+        executor.setThreadNamePrefix("product-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
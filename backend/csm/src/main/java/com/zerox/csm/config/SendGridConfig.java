@@ -0,0 +1,48 @@
+package com.zerox.csm.config;
+
+import com.sendgrid.Client;
+import com.sendgrid.SendGrid;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// One SendGrid client for the whole application, so connections are pooled and kept alive.
+// sendgrid.host and sendgrid.plain-http point the client at a local stub server in tests.
+@Configuration
+public class SendGridConfig {
+
+    @Bean
+    public CloseableHttpClient sendGridHttpClient(
+            @Value("${sendgrid.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${sendgrid.read-timeout:PT15S}") Duration readTimeout
+    ) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setConnectionRequestTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .build();
+
+        return HttpClients.custom()
+                .setDefaultRequestConfig(requestConfig)
+                .setMaxConnTotal(10)
+                .setMaxConnPerRoute(10)
+                .build();
+    }
+
+    @Bean
+    public SendGrid sendGrid(
+            CloseableHttpClient sendGridHttpClient,
+            @Value("${sendgrid.api.key}") String apiKey,
+            @Value("${sendgrid.host:api.sendgrid.com}") String host,
+            @Value("${sendgrid.plain-http:false}") boolean plainHttp
+    ) {
+        SendGrid sendGrid = new SendGrid(apiKey, new Client(sendGridHttpClient, plainHttp));
+        sendGrid.setHost(host);
+        return sendGrid;
+    }
+}
@@ -2,6 +2,7 @@ package com.zerox.csm.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
@@ -12,6 +13,7 @@ import org.springframework.web.servlet.resource.PathResourceResolver;
 import org.springframework.beans.factory.annotation.Value;
 import java.nio.file.Paths;
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -59,7 +61,7 @@ public class WebConfig implements WebMvcConfigurer {
         // Configure resource handler
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:" + uploadPath)
-                .setCachePeriod(3600)
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
                 .resourceChain(true)
                 .addResolver(new PathResourceResolver());
                 
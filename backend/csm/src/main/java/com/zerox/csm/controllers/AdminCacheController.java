@@ -0,0 +1,39 @@
+package com.zerox.csm.controllers;
+
+import com.zerox.csm.dto.CacheDto;
+import com.zerox.csm.security.JwtService;
+import com.zerox.csm.security.PrincipalCache;
+import com.zerox.csm.security.TokenVersions;
+import com.zerox.csm.service.ImageServingService;
+import com.zerox.csm.service.ProductCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AdminCacheController {
+
+    private final ProductCache productCache;
+    private final JwtService jwtService;
+    private final PrincipalCache principalCache;
+    private final TokenVersions tokenVersions;
+    private final ImageServingService imageServingService;
+
+    // Hit, miss and eviction counters, used to size the in-process caches
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheDto.CacheStatsResponse>> getCacheStats() {
+        List<CacheDto.CacheStatsResponse> stats = new ArrayList<>(productCache.stats());
+        stats.add(jwtService.tokenCacheStats());
+        stats.add(principalCache.stats());
+        stats.add(tokenVersions.stats());
+        stats.add(imageServingService.stats());
+        return ResponseEntity.ok(stats);
+    }
+}
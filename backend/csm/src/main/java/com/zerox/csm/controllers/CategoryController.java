@@ -28,6 +28,12 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.getSidebarCategories());
     }
     
+    // The whole hierarchy, each category with its children nested below it
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryDto.CategoryTreeResponse>> getCategoryTree() {
+        return ResponseEntity.ok(categoryService.getCategoryTree());
+    }
+    
     @GetMapping("/{categoryId}")
     public ResponseEntity<CategoryDto.CategoryResponse> getCategory(
             @PathVariable UUID categoryId
@@ -35,11 +41,19 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.getCategory(categoryId));
     }
     
+    @GetMapping("/{categoryId}/breadcrumbs")
+    public ResponseEntity<List<CategoryDto.CategoryBriefResponse>> getBreadcrumbs(
+            @PathVariable UUID categoryId
+    ) {
+        return ResponseEntity.ok(categoryService.getBreadcrumbs(categoryId));
+    }
+    
     @GetMapping("/{categoryId}/products")
     public ResponseEntity<List<CategoryDto.ProductInCategoryResponse>> getCategoryProducts(
-            @PathVariable UUID categoryId
+            @PathVariable UUID categoryId,
+            @RequestParam(defaultValue = "false") boolean includeSubcategories
     ) {
-        return ResponseEntity.ok(categoryService.getCategoryProducts(categoryId));
+        return ResponseEntity.ok(categoryService.getCategoryProducts(categoryId, includeSubcategories));
     }
     
     @PostMapping
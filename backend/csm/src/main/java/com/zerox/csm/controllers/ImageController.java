@@ -1,44 +1,49 @@
 package com.zerox.csm.controllers;
 
-import com.zerox.csm.exception.ResourceNotFoundException;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import com.zerox.csm.service.ImageDerivativeService;
+import com.zerox.csm.service.ImageLocator;
+import com.zerox.csm.service.ImageServingService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.MalformedURLException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/images")
+@RequiredArgsConstructor
 public class ImageController {
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    private final ImageLocator imageLocator;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageServingService imageServingService;
 
+    // w picks a resized copy (snapped to the configured widths), format re-encodes it as jpeg or png.
+    // Both originals and derivatives are served with ETag, Range and immutable Cache-Control headers.
     @GetMapping("/{fileName:.+}")
-    public ResponseEntity<Resource> getImage(@PathVariable String fileName) {
-        try {
-            Path filePath = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(fileName);
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if(!resource.exists()) {
-                throw new ResourceNotFoundException("Image not found: " + fileName);
+    public void getImage(
+            @PathVariable String fileName,
+            @RequestParam(name = "w", required = false) Integer width,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        if (width != null || format != null) {
+            Optional<ImageDerivativeService.Derivative> derivative = imageDerivativeService.resolve(fileName, width, format);
+            if (derivative.isEmpty()) {
+                // Still rendering; not answered with the original, which would be cached as immutable
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+                return;
             }
-            
-            String contentType = determineContentType(fileName);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-        } catch (MalformedURLException ex) {
-            throw new ResourceNotFoundException("Image not found: " + fileName);
+            imageServingService.serve(derivative.get().path(), derivative.get().contentType(), request, response);
+            return;
         }
+        imageServingService.serve(imageLocator.locate(fileName), determineContentType(fileName), request, response);
     }
     
     private String determineContentType(String fileName) {
@@ -1,5 +1,6 @@
 package com.zerox.csm.controllers;
 
+import com.zerox.csm.dto.CursorPage;
 import com.zerox.csm.dto.OrderDto.OrderRequest;
 import com.zerox.csm.dto.OrderDto.OrderResponse;
 import com.zerox.csm.dto.OrderDto.OrderStatusUpdateRequest;
@@ -66,6 +67,16 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrders(status, PageRequest.of(page, size)));
     }
 
+    @GetMapping("/seek")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public ResponseEntity<CursorPage<OrderResponse>> seekAllOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(orderService.seekAllOrders(status, cursor, size));
+    }
+
     @PutMapping("/{orderId}/status")
     @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN', 'CUSTOMER')")
     public ResponseEntity<OrderResponse> updateOrderStatus(
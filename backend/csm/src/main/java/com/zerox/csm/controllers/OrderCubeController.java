@@ -0,0 +1,45 @@
+package com.zerox.csm.controllers;
+
+import com.zerox.csm.dto.OlapDto;
+import com.zerox.csm.service.OrderCube;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Ad-hoc order slicing over the in-memory order cube
+@RestController
+@RequestMapping("/api/report/cube")
+@PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+@RequiredArgsConstructor
+public class OrderCubeController {
+
+    private final OrderCube orderCube;
+
+    // 503 until the cube has been built at startup
+    @PostMapping("/query")
+    public ResponseEntity<?> query(@RequestBody OlapDto.CubeQueryRequest request) {
+        return orderCube.query(request)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "30")
+                        .body(Map.of("message", "The order cube is still being built, try again later")));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<OlapDto.CubeStatsResponse> stats() {
+        return ResponseEntity.ok(orderCube.stats());
+    }
+
+    // Reloads the cube from the database without waiting for the scheduled rebuild
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OlapDto.CubeStatsResponse> rebuild() {
+        orderCube.rebuild();
+        return ResponseEntity.ok(orderCube.stats());
+    }
+}
@@ -1,10 +1,13 @@
 package com.zerox.csm.controllers;
 
+import com.zerox.csm.dto.CursorPage;
 import com.zerox.csm.dto.InventoryLogDto;
 import com.zerox.csm.dto.ProductDto;
 import com.zerox.csm.service.ImageStorageService;
 import com.zerox.csm.service.ProductArchiveService;
 import com.zerox.csm.service.ProductService;
+import com.zerox.csm.service.StockAdjustmentService;
+import com.zerox.csm.service.StockAlertEngine;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -20,6 +23,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -31,6 +35,8 @@ public class ProductController {
     private final ProductService productService;
     private final ProductArchiveService productArchiveService;
     private final ImageStorageService imageStorageService;
+    private final StockAlertEngine stockAlertEngine;
+    private final StockAdjustmentService stockAdjustmentService;
 
     @GetMapping
     public ResponseEntity<Page<ProductDto.ProductResponse>> searchProducts(
@@ -39,7 +45,7 @@ public class ProductController {
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String brand,
-            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "relevance") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDirection,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
@@ -49,6 +55,39 @@ public class ProductController {
         ));
     }
     
+    @GetMapping("/seek")
+    public ResponseEntity<CursorPage<ProductDto.ProductResponse>> seekProducts(
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String brand,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(productService.seekProducts(
+                categoryId, minPrice, maxPrice, brand, sortBy, sortDirection, cursor, size
+        ));
+    }
+
+    @GetMapping("/faceted")
+    public ResponseEntity<ProductDto.FacetedSearchResponse> searchProductsWithFacets(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String brand,
+            @RequestParam(defaultValue = "relevance") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(productService.searchProductsWithFacets(
+                query, categoryId, minPrice, maxPrice, brand, sortBy, sortDirection, page, size
+        ));
+    }
+    
     @GetMapping("/{productId}")
     public ResponseEntity<ProductDto.ProductResponse> getProductById(@PathVariable UUID productId) {
         return ResponseEntity.ok(productService.getProduct(productId));
@@ -106,6 +145,21 @@ public class ProductController {
         return ResponseEntity.ok(productService.updateStock(request));
     }
     
+    // Many deltas in one transaction with a result per item; items that cannot be applied do not fail the others
+    @PostMapping("/stock/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public ResponseEntity<ProductDto.BatchStockUpdateResponse> updateStockBatch(
+            @Valid @RequestBody ProductDto.BatchStockUpdateRequest request
+    ) {
+        return ResponseEntity.ok(stockAdjustmentService.adjustStock(request));
+    }
+    
+    @GetMapping("/low-stock")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public ResponseEntity<List<ProductDto.LowStockResponse>> getLowStockProducts() {
+        return ResponseEntity.ok(stockAlertEngine.lowStock());
+    }
+    
     @GetMapping("/{productId}/inventory-logs")
     @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
     public ResponseEntity<Page<InventoryLogDto.InventoryLogResponse>> getProductInventoryLogs(
@@ -119,6 +173,20 @@ public class ProductController {
                 productId, startDate, endDate, page, size
         ));
     }
+
+    @GetMapping("/{productId}/inventory-logs/seek")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+    public ResponseEntity<CursorPage<InventoryLogDto.InventoryLogResponse>> seekProductInventoryLogs(
+            @PathVariable UUID productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(productService.seekProductInventoryLogs(
+                productId, startDate, endDate, cursor, size
+        ));
+    }
     
     // Helper method to extract userId from UserDetails
     private UUID getUserId(UserDetails userDetails) {
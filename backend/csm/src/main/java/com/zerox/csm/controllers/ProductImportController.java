@@ -0,0 +1,72 @@
+package com.zerox.csm.controllers;
+
+import com.zerox.csm.dto.ProductDto;
+import com.zerox.csm.service.ProductExportService;
+import com.zerox.csm.service.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+// Bulk catalog transfer. Both directions use the same columns, so an export can be edited and imported back.
+@RestController
+@RequestMapping("/api/products")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+
+    // The file is the raw request body (text/csv with a header row, or application/x-ndjson with
+    // one product per line) rather than a multipart upload, so catalogs are not held to the
+    // multipart size limit. Answers 202 with a job to poll.
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importProducts(HttpServletRequest request) throws IOException {
+        ProductExportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(ProductExportService.Format.CSV.mediaType())
+                ? ProductExportService.Format.CSV
+                : ProductExportService.Format.NDJSON;
+        ProductDto.ImportJobResponse job;
+        try {
+            job = productImportService.submit(request.getInputStream(), format);
+        } catch (TaskRejectedException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(Map.of("message", "Too many imports are waiting, try again later"));
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/products/import/" + job.jobId()))
+                .body(job);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ProductDto.ImportJobResponse> getImportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(productImportService.getJob(jobId));
+    }
+
+    // Streamed from a database cursor; archived products are left out unless includeArchived is set
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean includeArchived
+    ) {
+        ProductExportService.Format exportFormat = ProductExportService.Format.parse(format);
+        StreamingResponseBody body = out -> productExportService.writeProducts(includeArchived, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+}
@@ -14,6 +14,10 @@ import com.zerox.csm.dto.OrderDto;
 import com.zerox.csm.dto.OrderDto.OrderResponse;
 import com.zerox.csm.dto.OrderDto.OrderItemResponse;
 import com.zerox.csm.model.OrderItem;
+import com.zerox.csm.model.OrderStatus;
+import com.zerox.csm.service.OrderReportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.zerox.csm.repository.UserRepository;
 import com.zerox.csm.dto.UserDto.AdminUserResponse;
 import java.util.stream.Collectors;
@@ -34,27 +38,30 @@ public class ReportController {
     @Autowired
     private com.zerox.csm.service.RepairService repairService;
 
+    @Autowired
+    private OrderReportService orderReportService;
+
     @GetMapping("/orders")
     public ResponseEntity<List<OrderResponse>> getAllOrdersReport(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate
     ) {
-        List<Order> orders = orderRepository.findAll();
+        // Filters run in the database; an unknown status matches nothing, as before
+        OrderStatus orderStatus = null;
         if (status != null) {
-            orders = orders.stream()
-                    .filter(o -> o.getStatus() != null && o.getStatus().name().equalsIgnoreCase(status))
-                    .toList();
+            orderStatus = parseStatus(status);
+            if (orderStatus == null) {
+                return ResponseEntity.ok(List.of());
+            }
         }
+        java.time.LocalDateTime start = null;
+        java.time.LocalDateTime end = null;
         if (startDate != null && endDate != null) {
-            java.time.LocalDateTime start = java.time.LocalDate.parse(startDate).atStartOfDay();
-            java.time.LocalDateTime end = java.time.LocalDate.parse(endDate).atTime(23,59,59);
-            orders = orders.stream()
-                    .filter(o -> o.getCreatedAt() != null &&
-                        (o.getCreatedAt().isEqual(start) || o.getCreatedAt().isAfter(start)) &&
-                        (o.getCreatedAt().isEqual(end) || o.getCreatedAt().isBefore(end)))
-                    .toList();
+            start = java.time.LocalDate.parse(startDate).atStartOfDay();
+            end = java.time.LocalDate.parse(endDate).atTime(23,59,59);
         }
+        List<Order> orders = orderRepository.findForReport(orderStatus, start, end);
         // Map to DTOs to avoid recursion and sensitive fields
         List<OrderResponse> dtos = orders.stream().map(order ->
             new OrderResponse(
@@ -82,6 +89,48 @@ public class ReportController {
         return ResponseEntity.ok(dtos);
     }
 
+    // Same report streamed from a database cursor, for date ranges too large to build in memory.
+    // format=ndjson writes one order per line, format=csv one order item per line.
+    @GetMapping("/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrdersReport(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        OrderReportService.Format reportFormat;
+        try {
+            reportFormat = OrderReportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported report format: " + format);
+        }
+        OrderStatus orderStatus = null;
+        if (status != null) {
+            orderStatus = parseStatus(status);
+            if (orderStatus == null) {
+                throw new IllegalArgumentException("Invalid order status: " + status);
+            }
+        }
+        java.time.LocalDateTime start = startDate != null ? java.time.LocalDate.parse(startDate).atStartOfDay() : null;
+        java.time.LocalDateTime end = endDate != null ? java.time.LocalDate.parse(endDate).atTime(23,59,59) : null;
+
+        OrderStatus filterStatus = orderStatus;
+        StreamingResponseBody body = out -> orderReportService.writeOrders(filterStatus, start, end, reportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(reportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders-report." + reportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    private OrderStatus parseStatus(String status) {
+        for (OrderStatus candidate : OrderStatus.values()) {
+            if (candidate.name().equalsIgnoreCase(status)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
     @GetMapping("/customers")
     public ResponseEntity<List<AdminUserResponse>> getAllCustomersReport() {
         List<AdminUserResponse> customers = userRepository.findAll().stream()
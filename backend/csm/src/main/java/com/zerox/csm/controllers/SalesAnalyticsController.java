@@ -0,0 +1,75 @@
+package com.zerox.csm.controllers;
+
+import com.zerox.csm.dto.SalesDto;
+import com.zerox.csm.model.SalesDailyRollup.Dimension;
+import com.zerox.csm.service.SalesAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Time-range sales aggregates served from the daily rollups
+@RestController
+@RequestMapping("/api/report/sales")
+@PreAuthorize("hasAnyRole('ADMIN', 'TECHNICIAN')")
+@RequiredArgsConstructor
+public class SalesAnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    @GetMapping("/summary")
+    public ResponseEntity<SalesDto.SalesSummaryResponse> getSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(salesAnalyticsService.getSummary(from, to));
+    }
+
+    // dimension=total needs no key; product and category take an id, brand and coupon their name
+    @GetMapping("/daily")
+    public ResponseEntity<List<SalesDto.SalesDailyResponse>> getDailySeries(
+            @RequestParam(defaultValue = "total") String dimension,
+            @RequestParam(required = false) String key,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(salesAnalyticsService.getDailySeries(parseDimension(dimension), key, from, to));
+    }
+
+    @GetMapping("/top")
+    public ResponseEntity<List<SalesDto.SalesAggregateResponse>> getTop(
+            @RequestParam String dimension,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(salesAnalyticsService.getTop(parseDimension(dimension), from, to, limit));
+    }
+
+    // Recomputes the rollups from the order history; 503 while another rebuild holds the event relay
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuild() {
+        if (!salesAnalyticsService.rebuild()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(Map.of("message", "A sales rollup rebuild is already running"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private Dimension parseDimension(String dimension) {
+        try {
+            return Dimension.valueOf(dimension.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown sales dimension: " + dimension);
+        }
+    }
+}
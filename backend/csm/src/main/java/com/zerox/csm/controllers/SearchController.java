@@ -1,6 +1,8 @@
 package com.zerox.csm.controllers;
 
 import com.zerox.csm.dto.SearchDto;
+import com.zerox.csm.dto.SuggestDto;
+import com.zerox.csm.service.ProductSuggestIndex;
 import com.zerox.csm.service.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +17,9 @@ public class SearchController {
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private ProductSuggestIndex productSuggestIndex;
+
     @GetMapping("/item")
     public ResponseEntity<List<SearchDto>> searchProducts(
             @RequestParam(name = "q", required = false) String query) {
@@ -27,4 +32,17 @@ public class SearchController {
         return ResponseEntity.ok(results);
     }
 
+    // Served straight from memory, so it is cheap enough to call on every keystroke
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestDto.SuggestionResponse>> suggest(
+            @RequestParam(name = "q", required = false) String query,
+            @RequestParam(defaultValue = "8") int limit,
+            @RequestParam(required = false) Integer fuzziness) {
+
+        if (query == null || query.trim().isEmpty()) {
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+
+        return ResponseEntity.ok(productSuggestIndex.suggest(query, limit, fuzziness));
+    }
 }
@@ -0,0 +1,32 @@
+package com.zerox.csm.dto;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public class CacheDto {
+
+    public record CacheStatsResponse(
+            String name,
+            long estimatedSize,
+            long hitCount,
+            long missCount,
+            double hitRate,
+            long evictionCount,
+            long loadCount,
+            double averageLoadPenaltyMillis
+    ) {
+        public static CacheStatsResponse of(String name, Cache<?, ?> cache) {
+            CacheStats stats = cache.stats();
+            return new CacheStatsResponse(
+                    name,
+                    cache.estimatedSize(),
+                    stats.hitCount(),
+                    stats.missCount(),
+                    stats.hitRate(),
+                    stats.evictionCount(),
+                    stats.loadCount(),
+                    stats.averageLoadPenalty() / 1_000_000.0
+            );
+        }
+    }
+}
@@ -39,6 +39,16 @@ public class CategoryDto {
             String icon
     ) {}
     
+    // A category with its whole subtree nested below it
+    public record CategoryTreeResponse(
+            UUID categoryId,
+            String name,
+            String slug,
+            String icon,
+            Boolean sidebar,
+            List<CategoryTreeResponse> children
+    ) {}
+    
     public record ProductInCategoryResponse(
             UUID productId,
             String name,
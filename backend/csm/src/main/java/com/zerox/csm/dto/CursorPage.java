@@ -0,0 +1,12 @@
+package com.zerox.csm.dto;
+
+import java.util.List;
+
+// One page of a keyset (seek) listing. Pass nextCursor back to fetch the following page;
+// there is no total count, so every page costs the same no matter how deep it is.
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {}
@@ -0,0 +1,62 @@
+package com.zerox.csm.dto;
+
+import com.zerox.csm.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class OlapDto {
+
+    // One order as loaded into the order cube; units is the sum of its item quantities
+    public record OrderFactRow(
+            UUID orderId,
+            OrderStatus status,
+            String paymentMethod,
+            String couponCode,
+            String city,
+            Integer loyaltyPoints,
+            LocalDateTime createdAt,
+            Long units,
+            BigDecimal totalAmount,
+            BigDecimal discountAmount,
+            BigDecimal finalAmount
+    ) {}
+
+    // groupBy and filter keys: status, payment_method, coupon, city, loyalty_tier, month (yyyy-MM)
+    public record CubeQueryRequest(
+            List<String> groupBy,
+            Map<String, List<String>> filters,
+            LocalDate from,
+            LocalDate to,
+            Integer limit
+    ) {}
+
+    public record CubeGroup(
+            Map<String, String> key,
+            long orders,
+            long units,
+            BigDecimal grossAmount,
+            BigDecimal discountAmount,
+            BigDecimal netAmount
+    ) {}
+
+    public record CubeQueryResponse(
+            List<CubeGroup> groups,
+            long matchedOrders,
+            int scannedRows,
+            double tookMillis,
+            LocalDateTime snapshotAt
+    ) {}
+
+    public record CubeStatsResponse(
+            boolean built,
+            int rows,
+            int chunks,
+            int pendingChanges,
+            LocalDateTime snapshotAt
+    ) {}
+}
@@ -48,6 +48,24 @@ public class OrderDto {
             BigDecimal subtotal
     ) {}
 
+    // One order line of the streamed order report; orders without items have null item fields
+    public record OrderReportRow(
+            UUID orderId,
+            String customerEmail,
+            BigDecimal totalAmount,
+            BigDecimal discountAmount,
+            BigDecimal finalAmount,
+            String couponCode,
+            OrderStatus status,
+            String paymentMethod,
+            String paymentId,
+            UUID shippingAddressId,
+            LocalDateTime createdAt,
+            String productName,
+            Integer quantity,
+            BigDecimal priceAtPurchase
+    ) {}
+
     public record OrderStatusUpdateRequest(
             @NotNull OrderStatus status
     ) {}
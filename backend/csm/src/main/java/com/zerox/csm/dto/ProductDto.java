@@ -1,13 +1,20 @@
 package com.zerox.csm.dto;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 // src/main/java/com/zerox/csm/dto/ProductDto.java
@@ -57,4 +64,112 @@ public class ProductDto {
             int quantityChange,
             UUID changedById
     ) {}
+
+    public record BatchStockUpdateRequest(
+            @NotEmpty @Size(max = 1000) List<@Valid @NotNull StockAdjustment> items,
+            UUID changedById
+    ) {}
+
+    // Bounded so the net change of a full batch cannot overflow an int
+    public record StockAdjustment(
+            @NotNull UUID productId,
+            @Min(-1_000_000) @Max(1_000_000) int quantityChange
+    ) {}
+
+    // status is APPLIED, NOT_FOUND, INSUFFICIENT_STOCK or INVALID. Items for the same product are
+    // applied as one net change, so they share the outcome and the old and new quantities.
+    public record StockAdjustmentResult(
+            UUID productId,
+            int quantityChange,
+            String status,
+            Integer oldQuantity,
+            Integer newQuantity
+    ) {}
+
+    public record BatchStockUpdateResponse(
+            int applied,
+            int rejected,
+            List<StockAdjustmentResult> results
+    ) {}
+
+    // One product in a bulk import or export file. Only sku is always required: on import a
+    // missing value keeps what the product already has, or takes the usual default for a new one.
+    // category is matched by id, slug or name.
+    public record ProductTransferRow(
+            String sku,
+            String name,
+            String description,
+            BigDecimal price,
+            String category,
+            String brand,
+            Integer stockQuantity,
+            Integer lowStockThreshold,
+            Integer warrantyPeriodMonths,
+            String keywords,
+            Boolean active
+    ) {}
+
+    // row is the 1-based data row (CSV) or line (NDJSON) in the uploaded file
+    public record ImportRowError(
+            long row,
+            String sku,
+            String message
+    ) {}
+
+    public record ImportJobResponse(
+            UUID jobId,
+            String status,
+            String format,
+            long rowsRead,
+            long inserted,
+            long updated,
+            long failed,
+            List<ImportRowError> errors,
+            boolean errorsTruncated,
+            String message,
+            LocalDateTime createdAt,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt
+    ) {}
+
+    // recovering: stock is back above the threshold but the alert has not been resolved yet
+    public record LowStockResponse(
+            UUID productId,
+            String name,
+            String sku,
+            int stockQuantity,
+            Integer lowStockThreshold,
+            LocalDateTime alertOpenedAt,
+            boolean recovering
+    ) {}
+
+    public record FacetedSearchResponse(
+            Page<ProductResponse> results,
+            Facets facets
+    ) {}
+
+    public record Facets(
+            int total,
+            List<BrandFacet> brands,
+            List<CategoryFacet> categories,
+            List<PriceBucketFacet> priceBuckets
+    ) {}
+
+    public record BrandFacet(
+            String brand,
+            int count
+    ) {}
+
+    public record CategoryFacet(
+            UUID categoryId,
+            String name,
+            UUID parentCategoryId,
+            int count
+    ) {}
+
+    public record PriceBucketFacet(
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            int count
+    ) {}
 }
@@ -0,0 +1,50 @@
+package com.zerox.csm.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class SalesDto {
+
+    // Query projection; sums are null-free because every rollup column is NOT NULL
+    public record SalesAggregateRow(
+            String key,
+            Long units,
+            Long orderCount,
+            BigDecimal grossAmount,
+            BigDecimal discountAmount,
+            BigDecimal netAmount,
+            BigDecimal refundedAmount
+    ) {}
+
+    public record SalesAggregateResponse(
+            String key,
+            String label,
+            long units,
+            long orderCount,
+            BigDecimal grossAmount,
+            BigDecimal discountAmount,
+            BigDecimal netAmount,
+            BigDecimal refundedAmount
+    ) {}
+
+    public record SalesSummaryResponse(
+            LocalDate from,
+            LocalDate to,
+            long units,
+            long orderCount,
+            BigDecimal grossAmount,
+            BigDecimal discountAmount,
+            BigDecimal netAmount,
+            BigDecimal refundedAmount
+    ) {}
+
+    public record SalesDailyResponse(
+            LocalDate date,
+            long units,
+            long orderCount,
+            BigDecimal grossAmount,
+            BigDecimal discountAmount,
+            BigDecimal netAmount,
+            BigDecimal refundedAmount
+    ) {}
+}
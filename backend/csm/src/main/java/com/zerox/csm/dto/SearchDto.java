@@ -23,6 +23,7 @@ public class SearchDto {
         this.name = name;
         this.score = score;
         this.price = price;
+        this.imageUrl = imageUrl;
     }
 
     public String getProductId() {return productId;}
@@ -0,0 +1,22 @@
+package com.zerox.csm.dto;
+
+import java.util.UUID;
+
+public class SuggestDto {
+
+    public enum SuggestionType {
+        PRODUCT,
+        BRAND,
+        SKU,
+        CATEGORY
+    }
+
+    public record SuggestionResponse(
+            String text,
+            SuggestionType type,
+            UUID productId,
+            UUID categoryId,
+            int edits,
+            double score
+    ) {}
+}
@@ -0,0 +1,7 @@
+package com.zerox.csm.event;
+
+import java.util.UUID;
+
+// Published by CategoryService whenever the category hierarchy or a category name changes
+public record CategoryChangedEvent(UUID categoryId) {
+}
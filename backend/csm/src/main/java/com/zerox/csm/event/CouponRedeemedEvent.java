@@ -0,0 +1,12 @@
+package com.zerox.csm.event;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record CouponRedeemedEvent(
+        UUID couponId,
+        UUID userId,
+        UUID orderId,
+        BigDecimal discountAmount
+) implements DomainEvent {
+}
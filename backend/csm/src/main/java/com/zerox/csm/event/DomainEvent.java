@@ -0,0 +1,6 @@
+package com.zerox.csm.event;
+
+// Business event that goes through the domain_events outbox instead of straight to listeners.
+// Implementations are serialized to JSON, so they should only carry ids and plain values.
+public interface DomainEvent {
+}
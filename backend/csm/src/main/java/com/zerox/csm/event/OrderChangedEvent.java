@@ -0,0 +1,8 @@
+package com.zerox.csm.event;
+
+import java.util.UUID;
+
+// Published by the order write paths so in-memory order views can follow changes.
+// Listeners should use @TransactionalEventListener so they only see committed changes.
+public record OrderChangedEvent(UUID orderId) {
+}
@@ -0,0 +1,6 @@
+package com.zerox.csm.event;
+
+import java.util.UUID;
+
+public record OrderDeliveredEvent(UUID orderId, UUID userId) implements DomainEvent {
+}
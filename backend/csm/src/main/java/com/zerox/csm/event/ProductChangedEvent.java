@@ -0,0 +1,25 @@
+package com.zerox.csm.event;
+
+import com.zerox.csm.model.Product;
+
+// Published by the product write paths so in-memory indexes can follow the catalog.
+// Listeners should use @TransactionalEventListener so they only see committed changes.
+public record ProductChangedEvent(Product product, ChangeType changeType) {
+
+    public enum ChangeType {
+        SAVED,
+        DELETED
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product, ChangeType.SAVED);
+    }
+
+    public static ProductChangedEvent deleted(Product product) {
+        return new ProductChangedEvent(product, ChangeType.DELETED);
+    }
+
+    public boolean isDeleted() {
+        return changeType == ChangeType.DELETED;
+    }
+}
@@ -0,0 +1,9 @@
+package com.zerox.csm.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ReturnRefundedEvent(UUID returnId, UUID orderId, BigDecimal refundAmount, LocalDateTime refundedAt)
+        implements DomainEvent {
+}
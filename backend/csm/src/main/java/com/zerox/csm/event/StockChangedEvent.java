@@ -0,0 +1,7 @@
+package com.zerox.csm.event;
+
+import java.util.UUID;
+
+// quantityChange is the delta applied; subscribers read the current level from the database
+public record StockChangedEvent(UUID productId, int quantityChange) implements DomainEvent {
+}
@@ -0,0 +1,8 @@
+package com.zerox.csm.event;
+
+import java.util.UUID;
+
+// Published when a user's role, status or email changes, or the account is deleted,
+// so cached principals and token versions are dropped. Listeners should use @TransactionalEventListener.
+public record UserAccountChangedEvent(UUID userId, String email) {
+}
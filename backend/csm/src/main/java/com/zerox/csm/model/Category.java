@@ -1,5 +1,6 @@
 package com.zerox.csm.model;
 
+import com.zerox.csm.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,7 +24,7 @@ import java.util.UUID;
 public class Category {
     @Id
     @GeneratedValue
-    @UuidGenerator
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "category_id")
     private UUID categoryId;
 
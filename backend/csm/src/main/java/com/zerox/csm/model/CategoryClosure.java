@@ -0,0 +1,46 @@
+package com.zerox.csm.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+// Closure table of the category hierarchy: one row for every (ancestor, descendant) pair,
+// including each category paired with itself at depth 0. "Products anywhere under X" is then
+// a single indexed lookup on ancestor_id instead of a recursive walk.
+// Maintained by CategoryClosureIndex; ids are plain columns so category deletes are not blocked.
+@Entity
+@Table(
+        name = "category_closure",
+        indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, depth")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosure {
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "ancestor_id", nullable = false)
+        private UUID ancestorId;
+
+        @Column(name = "descendant_id", nullable = false)
+        private UUID descendantId;
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    // Number of parent links between the two; 0 for the self row
+    @Column(name = "depth", nullable = false)
+    private int depth;
+}
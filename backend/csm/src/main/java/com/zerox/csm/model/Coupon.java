@@ -1,5 +1,6 @@
 package com.zerox.csm.model;
 
+import com.zerox.csm.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,7 +27,7 @@ public class Coupon {
 
     @Id
     @GeneratedValue
-    @UuidGenerator
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "coupon_id")
     private UUID couponId;
 
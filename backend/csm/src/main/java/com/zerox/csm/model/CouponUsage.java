@@ -1,5 +1,6 @@
 package com.zerox.csm.model;
 
+import com.zerox.csm.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,7 +21,7 @@ import java.util.UUID;
 public class CouponUsage {
     @Id
     @GeneratedValue
-    @UuidGenerator
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "usage_id")
     private UUID usageId;
     
@@ -1,5 +1,6 @@
 package com.zerox.csm.model;
 
+import com.zerox.csm.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,7 +19,7 @@ import java.util.UUID;
 public class CustomerAddress {
     @Id
     @GeneratedValue
-    @UuidGenerator
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "address_id")
     private UUID addressId;
 
@@ -0,0 +1,64 @@
+package com.zerox.csm.model;
+
+import com.zerox.csm.model.id.UuidV7Generator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Email written in the same transaction as the business change and sent later by EmailDispatcher
+@Entity
+@Table(
+        name = "email_outbox",
+        indexes = @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    public enum Status {
+        PENDING, SENT, FAILED
+    }
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    @Column(name = "email_id")
+    private UUID emailId;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Column(name = "html_body", columnDefinition = "TEXT", nullable = false)
+    private String htmlBody;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
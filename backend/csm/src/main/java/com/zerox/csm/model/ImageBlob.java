@@ -0,0 +1,37 @@
+package com.zerox.csm.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One stored image file, shared by every product whose upload had the same bytes.
+// The blob is deleted when the last reference to it is released.
+@Entity
+@Table(name = "image_blobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBlob {
+
+    // SHA-256 of the content in hex, plus the extension for the content type
+    @Id
+    @Column(name = "blob_key", length = 80)
+    private String blobKey;
+
+    @Column(name = "content_type", nullable = false, length = 50)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
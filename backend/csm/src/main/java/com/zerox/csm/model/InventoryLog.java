@@ -1,5 +1,6 @@
 package com.zerox.csm.model;
 
+import com.zerox.csm.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,7 +20,7 @@ import java.util.UUID;
 public class InventoryLog {
     @Id
     @GeneratedValue
-    @UuidGenerator
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "log_id")
     private UUID logId;
 
@@ -0,0 +1,62 @@
+package com.zerox.csm.model;
+
+import com.zerox.csm.model.id.UuidV7Generator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Domain event stored in the same transaction as the change that raised it.
+// DomainEventRelay hands it to the in-process subscribers and retries until they succeed.
+@Entity
+@Table(
+        name = "domain_events",
+        indexes = @Index(name = "idx_domain_events_status_available", columnList = "status, available_at")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    public enum Status {
+        PENDING, PROCESSED, FAILED
+    }
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    @Column(name = "event_id")
+    private UUID eventId;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,72 @@
+package com.zerox.csm.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Sales figures for one day and one product, category, brand or coupon.
+// Rows are only ever changed by adding deltas (see SalesDailyRollupRepository.upsert),
+// so analytics queries read a few rows per day instead of scanning orders and order_items.
+@Entity
+@Table(
+        name = "sales_daily_rollups",
+        indexes = @Index(name = "idx_sales_rollups_dimension_date", columnList = "dimension, rollup_date")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyRollup {
+
+    public enum Dimension {
+        TOTAL, PRODUCT, CATEGORY, BRAND, COUPON
+    }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "rollup_date", nullable = false)
+        private LocalDate day;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "dimension", nullable = false, length = 20)
+        private Dimension dimension;
+
+        @Column(name = "dimension_key", nullable = false, length = 100)
+        private String dimensionKey;
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "units", nullable = false)
+    private Long units;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "gross_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal grossAmount;
+
+    @Column(name = "discount_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal discountAmount;
+
+    @Column(name = "net_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal netAmount;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal refundedAmount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,46 @@
+package com.zerox.csm.model;
+
+import com.zerox.csm.model.id.UuidV7Generator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Records which order and return events are already in the sales rollups,
+// so a redelivered event is not counted twice
+@Entity
+@Table(
+        name = "sales_postings",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_postings_source_kind", columnNames = {"source_id", "kind"})
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesPosting {
+
+    public enum Kind {
+        ORDER_PLACED, ORDER_CANCELLED, RETURN_REFUNDED
+    }
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    @Column(name = "posting_id")
+    private UUID postingId;
+
+    @Column(name = "source_id", nullable = false)
+    private UUID sourceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 20)
+    private Kind kind;
+
+    @Column(name = "posted_at", nullable = false)
+    private LocalDateTime postedAt;
+}
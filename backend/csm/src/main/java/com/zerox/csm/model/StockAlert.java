@@ -1,5 +1,6 @@
 package com.zerox.csm.model;
 
+import com.zerox.csm.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,10 +17,12 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+// One row per low-stock episode: opened when stock falls to the threshold, resolved once it has
+// recovered. Rows are only written on those two transitions, see StockAlertEngine.
 public class StockAlert {
     @Id
     @GeneratedValue
-    @UuidGenerator
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "alert_id")
     private UUID alertId;
     
@@ -27,9 +30,29 @@ public class StockAlert {
     @JoinColumn(name = "product_id")
     private Product product;
     
+    // Stock when the alert was opened
     @Column(name = "current_stock", nullable = false)
     private Integer currentStock;
     
+    @Column(name = "threshold")
+    private Integer threshold;
+    
+    // Null on rows written before alerts had a state; they are closed as RESOLVED at startup
+    @Column(name = "status", length = 20)
+    @Enumerated(EnumType.STRING)
+    private AlertStatus status;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+    
+    @Column(name = "resolved_stock")
+    private Integer resolvedStock;
+    
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+    
+    public enum AlertStatus {
+        OPEN,
+        RESOLVED
+    }
 } 
\ No newline at end of file
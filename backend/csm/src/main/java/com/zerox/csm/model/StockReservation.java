@@ -0,0 +1,60 @@
+package com.zerox.csm.model;
+
+import com.zerox.csm.model.id.UuidV7Generator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Stock held for an order line. The units are already taken off products.stock_quantity;
+// an ACTIVE reservation that expires before payment gives them back.
+@Entity
+@Table(
+        name = "stock_reservations",
+        indexes = {
+                @Index(name = "idx_stock_reservations_status_expires", columnList = "status, expires_at"),
+                @Index(name = "idx_stock_reservations_order", columnList = "order_id")
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    public enum Status {
+        ACTIVE, COMMITTED, RELEASED
+    }
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    @Column(name = "reservation_id")
+    private UUID reservationId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.zerox.csm.model;
 
+import com.zerox.csm.model.id.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,7 +30,7 @@ import java.util.UUID;
 public class User {
     @Id
     @GeneratedValue
-    @UuidGenerator
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "user_id")
     private UUID userId;
 
@@ -59,6 +60,11 @@ public class User {
     @Builder.Default
     private boolean isDeleted = false;
 
+    // Bumped on role, status and email changes; tokens carrying an older version are rejected
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
 
     public UUID getUserId() {
         return userId;
@@ -0,0 +1,23 @@
+package com.zerox.csm.model.id;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+// The 16-byte big-endian form Hibernate uses for BINARY(16) id columns, for plain JDBC writes and reads
+public final class UuidBytes {
+
+    private UuidBytes() {
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,44 @@
+package com.zerox.csm.model.id;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+// Time-ordered UUIDs (RFC 9562 version 7): 48 bits of Unix milliseconds, then a 12-bit
+// sequence, then 62 random bits. Stored as BINARY(16) they sort by creation time, so inserts
+// append to the end of the primary key index instead of splitting pages all over it.
+// Ids from one JVM are strictly increasing: the sequence counts up within a millisecond and
+// borrows from the next one on overflow, and a clock that steps back does not reorder them.
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int MAX_SEQUENCE = 0xFFF;
+
+    private static long lastMillis = -1;
+    private static int sequence;
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long millis;
+        int seq;
+        synchronized (UuidV7.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // Random start in the lower half leaves room to count up within the millisecond
+                sequence = RANDOM.nextInt(MAX_SEQUENCE / 2);
+            } else if (sequence < MAX_SEQUENCE) {
+                sequence++;
+            } else {
+                lastMillis++;
+                sequence = 0;
+            }
+            millis = lastMillis;
+            seq = sequence;
+        }
+        long mostSignificant = (millis << 16) | (0x7L << 12) | seq;
+        long leastSignificant = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,17 @@
+package com.zerox.csm.model.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+
+// Plugs UuidV7 into Hibernate. An entity opts in with
+// @GeneratedValue @UuidGenerator(algorithm = UuidV7Generator.class) on its UUID id.
+// The gain over random v4 ids is index locality on insert; bench/UuidInsertBenchmark measures it on InnoDB.
+public class UuidV7Generator implements UuidValueGenerator {
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return UuidV7.next();
+    }
+}
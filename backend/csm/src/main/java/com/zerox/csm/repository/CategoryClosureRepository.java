@@ -0,0 +1,59 @@
+package com.zerox.csm.repository;
+
+import com.zerox.csm.model.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    @Query("SELECT COUNT(c) FROM CategoryClosure c WHERE c.depth = 0")
+    long countSelfRows();
+
+    // A new category: its self row plus one row per ancestor of its parent
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT :categoryId, :categoryId, 0 " +
+            "UNION ALL " +
+            "SELECT ancestor_id, :categoryId, depth + 1 FROM category_closure WHERE descendant_id = :parentId",
+            nativeQuery = true)
+    int insertLeaf(@Param("categoryId") UUID categoryId, @Param("parentId") UUID parentId);
+
+    // First half of a move: cuts every path from outside the subtree into it.
+    // Written as a multi-table DELETE because MySQL cannot select from the table being deleted from.
+    @Modifying
+    @Query(value = "DELETE link FROM category_closure link " +
+            "JOIN category_closure subtree ON subtree.descendant_id = link.descendant_id AND subtree.ancestor_id = :categoryId " +
+            "LEFT JOIN category_closure within_subtree ON within_subtree.ancestor_id = :categoryId " +
+            "AND within_subtree.descendant_id = link.ancestor_id " +
+            "WHERE within_subtree.ancestor_id IS NULL",
+            nativeQuery = true)
+    int detachSubtree(@Param("categoryId") UUID categoryId);
+
+    // Second half of a move: links every ancestor of the new parent to every node of the subtree
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT above.ancestor_id, subtree.descendant_id, above.depth + subtree.depth + 1 " +
+            "FROM category_closure above JOIN category_closure subtree " +
+            "ON above.descendant_id = :parentId AND subtree.ancestor_id = :categoryId",
+            nativeQuery = true)
+    int attachSubtree(@Param("categoryId") UUID categoryId, @Param("parentId") UUID parentId);
+
+    // Rows for categories that no longer exist, including children removed by cascade
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE link FROM category_closure link " +
+            "LEFT JOIN categories ancestor ON ancestor.category_id = link.ancestor_id " +
+            "LEFT JOIN categories descendant ON descendant.category_id = link.descendant_id " +
+            "WHERE ancestor.category_id IS NULL OR descendant.category_id IS NULL",
+            nativeQuery = true)
+    int deleteDangling();
+
+    @Modifying
+    @Query(value = "DELETE FROM category_closure", nativeQuery = true)
+    int deleteAllLinks();
+}
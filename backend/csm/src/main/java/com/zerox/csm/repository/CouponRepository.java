@@ -4,6 +4,7 @@ import com.zerox.csm.model.Coupon;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -36,4 +37,10 @@ public interface CouponRepository extends JpaRepository<Coupon, UUID> {
             @Param("isActive") Boolean isActive,
             Pageable pageable
     );
+
+    // Takes one use if the coupon has any left; 0 rows means the limit was already reached
+    @Modifying
+    @Query("UPDATE Coupon c SET c.currentUses = c.currentUses + 1 WHERE c.couponId = :couponId " +
+           "AND (c.maxUses IS NULL OR c.currentUses < c.maxUses)")
+    int reserveUse(@Param("couponId") UUID couponId);
 } 
\ No newline at end of file
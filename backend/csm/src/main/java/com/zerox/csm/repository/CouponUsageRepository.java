@@ -19,6 +19,8 @@ public interface CouponUsageRepository extends JpaRepository<CouponUsage, UUID>
     
     @Query("SELECT COUNT(cu) FROM CouponUsage cu WHERE cu.coupon.couponId = :couponId")
     int countUsagesByCouponId(@Param("couponId") UUID couponId);
+
+    boolean existsByOrderOrderId(UUID orderId);
     
     Page<CouponUsage> findByCoupon(Coupon coupon, Pageable pageable);
     
@@ -0,0 +1,22 @@
+package com.zerox.csm.repository;
+
+import com.zerox.csm.model.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, UUID> {
+
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt ASC")
+    List<EmailOutbox> findDue(
+            @Param("status") EmailOutbox.Status status,
+            @Param("now") LocalDateTime now,
+            Pageable pageable);
+}
@@ -0,0 +1,36 @@
+package com.zerox.csm.repository;
+
+import com.zerox.csm.model.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    // Takes a reference, creating the row on first upload of this content
+    @Modifying
+    @Query(value = "INSERT INTO image_blobs (blob_key, content_type, size_bytes, ref_count, created_at) " +
+            "VALUES (:key, :contentType, :size, 1, :now) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1",
+            nativeQuery = true)
+    int acquire(
+            @Param("key") String key,
+            @Param("contentType") String contentType,
+            @Param("size") long size,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE image_blobs SET ref_count = ref_count - 1 WHERE blob_key = :key AND ref_count > 0",
+            nativeQuery = true)
+    int release(@Param("key") String key);
+
+    // Returns 1 when this call removed the last row for the blob, so exactly one caller deletes the file
+    @Modifying
+    @Query(value = "DELETE FROM image_blobs WHERE blob_key = :key AND ref_count = 0", nativeQuery = true)
+    int deleteIfUnreferenced(@Param("key") String key);
+}
@@ -4,6 +4,7 @@ import com.zerox.csm.model.InventoryLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,7 +14,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface InventoryLogRepository extends JpaRepository<InventoryLog, UUID> {
+public interface InventoryLogRepository extends JpaRepository<InventoryLog, UUID>, JpaSpecificationExecutor<InventoryLog> {
 
     @Query("SELECT il FROM InventoryLog il WHERE " +
             "il.product.productId = :productId AND " +
@@ -1,26 +1,98 @@
 package com.zerox.csm.repository;
 
+import com.zerox.csm.dto.OlapDto;
+import com.zerox.csm.dto.OrderDto;
 import com.zerox.csm.model.Order;
 import com.zerox.csm.model.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order> {
     Page<Order> findByUserUserId(UUID userId, Pageable pageable);
 
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
 
     List<Order> findByUserUserIdAndStatus(UUID userId, OrderStatus status);
     
+    // Units sold per product, used to weight search suggestions
+    @Query("SELECT oi.product.productId, SUM(oi.quantity) FROM OrderItem oi " +
+            "WHERE oi.order.status <> com.zerox.csm.model.OrderStatus.CANCELLED " +
+            "GROUP BY oi.product.productId")
+    List<Object[]> sumUnitsSoldByProduct();
+
+    // Flat order lines for the report export, filtered in the database and read through a
+    // forward-only cursor (MySQL streams rows when the fetch size is Integer.MIN_VALUE).
+    // Rows are DTOs rather than entities, so nothing accumulates in the persistence context.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.zerox.csm.dto.OrderDto$OrderReportRow(" +
+            "o.orderId, u.email, o.totalAmount, o.discountAmount, o.finalAmount, o.couponCode, o.status, " +
+            "o.paymentMethod, o.paymentId, a.addressId, o.createdAt, p.name, oi.quantity, oi.priceAtPurchase) " +
+            "FROM Order o LEFT JOIN o.user u LEFT JOIN o.shippingAddress a " +
+            "LEFT JOIN o.items oi LEFT JOIN oi.product p " +
+            "WHERE (:status IS NULL OR o.status = :status) " +
+            "AND (:start IS NULL OR o.createdAt >= :start) " +
+            "AND (:end IS NULL OR o.createdAt <= :end) " +
+            "ORDER BY o.createdAt ASC, o.orderId ASC")
+    Stream<OrderDto.OrderReportRow> streamReportRows(
+            @Param("status") OrderStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    // Order cube facts: one row per order with its item units summed
+    String ORDER_FACTS = "SELECT new com.zerox.csm.dto.OlapDto$OrderFactRow(" +
+            "o.orderId, o.status, o.paymentMethod, o.couponCode, a.city, u.loyaltyPoints, o.createdAt, " +
+            "SUM(oi.quantity), o.totalAmount, o.discountAmount, o.finalAmount) " +
+            "FROM Order o LEFT JOIN o.user u LEFT JOIN o.shippingAddress a LEFT JOIN o.items oi ";
+    String ORDER_FACTS_GROUP_BY = "GROUP BY o.orderId, o.status, o.paymentMethod, o.couponCode, a.city, " +
+            "u.loyaltyPoints, o.createdAt, o.totalAmount, o.discountAmount, o.finalAmount";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(ORDER_FACTS + ORDER_FACTS_GROUP_BY)
+    Stream<OlapDto.OrderFactRow> streamOrderFacts();
+
+    @Query(ORDER_FACTS + "WHERE o.orderId IN :orderIds " + ORDER_FACTS_GROUP_BY)
+    List<OlapDto.OrderFactRow> findOrderFacts(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Query("SELECT o FROM Order o WHERE " +
+            "(:status IS NULL OR o.status = :status) AND " +
+            "(:start IS NULL OR o.createdAt >= :start) AND " +
+            "(:end IS NULL OR o.createdAt <= :end) " +
+            "ORDER BY o.createdAt ASC")
+    List<Order> findForReport(
+            @Param("status") OrderStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    // Conditional status change, so a background job cannot overwrite a concurrent update
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to WHERE o.orderId = :orderId AND o.status = :from")
+    int transitionStatus(
+            @Param("orderId") UUID orderId,
+            @Param("from") OrderStatus from,
+            @Param("to") OrderStatus to);
+
     @Modifying
     @Query("DELETE FROM Order o WHERE o.user.userId = :userId")
     int deleteByUserUserId(@Param("userId") UUID userId);
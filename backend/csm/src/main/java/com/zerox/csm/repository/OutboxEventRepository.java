@@ -0,0 +1,22 @@
+package com.zerox.csm.repository;
+
+import com.zerox.csm.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = :status AND e.availableAt <= :now ORDER BY e.createdAt ASC")
+    List<OutboxEvent> findDue(
+            @Param("status") OutboxEvent.Status status,
+            @Param("now") LocalDateTime now,
+            Pageable pageable);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,6 +21,12 @@ public interface ProductDiscountRepository extends JpaRepository<ProductDiscount
            "pd.startDate <= :now AND pd.endDate >= :now ORDER BY pd.discountPrice ASC")
     Optional<ProductDiscount> findActiveDiscountForProduct(@Param("productId") UUID productId, @Param("now") LocalDateTime now);
     
+    @Query("SELECT pd FROM ProductDiscount pd JOIN FETCH pd.product WHERE pd.product.productId IN :productIds AND " +
+           "pd.active = true AND pd.startDate <= :now AND pd.endDate >= :now ORDER BY pd.discountPrice ASC")
+    List<ProductDiscount> findActiveDiscountsForProducts(
+            @Param("productIds") Collection<UUID> productIds,
+            @Param("now") LocalDateTime now);
+
     @Query("SELECT pd FROM ProductDiscount pd WHERE pd.active = true AND " +
            "pd.startDate <= :now AND pd.endDate >= :now ORDER BY pd.product.name ASC")
     List<ProductDiscount> findAllActiveDiscounts(@Param("now") LocalDateTime now);
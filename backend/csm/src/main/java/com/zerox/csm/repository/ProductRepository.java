@@ -1,25 +1,67 @@
 package com.zerox.csm.repository;
 
+import com.zerox.csm.dto.ProductDto;
 import com.zerox.csm.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 // src/main/java/com/zerox/csm/repository/ProductRepository.java
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
     Page<Product> findByActiveTrue(Pageable pageable);
     Optional<Product> findBySku(String sku);
+    List<Product> findByCategoryCategoryIdIn(Collection<UUID> categoryIds);
+
+    // Catalog export read through a forward-only cursor, same as the order report export
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.zerox.csm.dto.ProductDto$ProductTransferRow(" +
+            "p.sku, p.name, p.description, p.price, COALESCE(c.slug, c.name), p.brand, p.stockQuantity, " +
+            "p.lowStockThreshold, p.warrantyPeriodMonths, p.keywords, p.active) " +
+            "FROM Product p LEFT JOIN p.category c " +
+            "WHERE (:includeArchived = true OR p.active = true) " +
+            "ORDER BY p.sku ASC")
+    Stream<ProductDto.ProductTransferRow> streamTransferRows(@Param("includeArchived") boolean includeArchived);
+
+    @Query("SELECT p FROM Product p WHERE p.lowStockThreshold IS NOT NULL AND p.stockQuantity <= p.lowStockThreshold")
+    List<Product> findAtOrBelowLowStockThreshold();
+
+    // Loads the active catalog in one query for the in-memory search index
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.active = true")
+    List<Product> findAllActiveWithCategory();
+
+    // Conditional atomic decrement: matches no row instead of overselling when stock is short
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity " +
+            "WHERE p.productId = :productId AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity WHERE p.productId = :productId")
+    int incrementStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
     
+    // A category matches products anywhere in its subtree, through the category closure table
     @Query("SELECT p FROM Product p WHERE " +
-            "(:category IS NULL OR p.category.categoryId = :category) AND " +
+            "(:category IS NULL OR p.category.categoryId IN " +
+            "(SELECT c.id.descendantId FROM CategoryClosure c WHERE c.id.ancestorId = :category)) AND " +
             "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
             "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
             "(:brand IS NULL OR p.brand = :brand) AND " +
@@ -36,7 +78,8 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     @Query("SELECT p FROM Product p WHERE " +
             "(LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))) AND " +
-            "(:category IS NULL OR p.category.categoryId = :category) AND " +
+            "(:category IS NULL OR p.category.categoryId IN " +
+            "(SELECT c.id.descendantId FROM CategoryClosure c WHERE c.id.ancestorId = :category)) AND " +
             "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
             "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
             "(:brand IS NULL OR p.brand = :brand) AND " +
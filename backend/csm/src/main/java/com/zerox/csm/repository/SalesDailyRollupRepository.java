@@ -0,0 +1,72 @@
+package com.zerox.csm.repository;
+
+import com.zerox.csm.dto.SalesDto;
+import com.zerox.csm.model.SalesDailyRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, SalesDailyRollup.Key> {
+
+    // Adds the deltas to the row in one statement, creating it on first use.
+    // Concurrent writers never lose an update because the row is never read back first.
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily_rollups " +
+            "(rollup_date, dimension, dimension_key, units, order_count, gross_amount, discount_amount, net_amount, refunded_amount, updated_at) " +
+            "VALUES (:day, :dimension, :dimensionKey, :units, :orderCount, :gross, :discount, :net, :refunded, :now) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "units = units + VALUES(units), " +
+            "order_count = order_count + VALUES(order_count), " +
+            "gross_amount = gross_amount + VALUES(gross_amount), " +
+            "discount_amount = discount_amount + VALUES(discount_amount), " +
+            "net_amount = net_amount + VALUES(net_amount), " +
+            "refunded_amount = refunded_amount + VALUES(refunded_amount), " +
+            "updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int upsert(
+            @Param("day") LocalDate day,
+            @Param("dimension") String dimension,
+            @Param("dimensionKey") String dimensionKey,
+            @Param("units") long units,
+            @Param("orderCount") long orderCount,
+            @Param("gross") BigDecimal gross,
+            @Param("discount") BigDecimal discount,
+            @Param("net") BigDecimal net,
+            @Param("refunded") BigDecimal refunded,
+            @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.zerox.csm.dto.SalesDto$SalesAggregateRow(" +
+            "r.id.dimensionKey, SUM(r.units), SUM(r.orderCount), SUM(r.grossAmount), SUM(r.discountAmount), " +
+            "SUM(r.netAmount), SUM(r.refundedAmount)) " +
+            "FROM SalesDailyRollup r " +
+            "WHERE r.id.dimension = :dimension AND r.id.day BETWEEN :from AND :to " +
+            "GROUP BY r.id.dimensionKey " +
+            "ORDER BY SUM(r.netAmount) DESC")
+    List<SalesDto.SalesAggregateRow> aggregate(
+            @Param("dimension") SalesDailyRollup.Dimension dimension,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            Pageable pageable);
+
+    @Query("SELECT r FROM SalesDailyRollup r " +
+            "WHERE r.id.dimension = :dimension AND r.id.dimensionKey = :dimensionKey " +
+            "AND r.id.day BETWEEN :from AND :to ORDER BY r.id.day ASC")
+    List<SalesDailyRollup> findSeries(
+            @Param("dimension") SalesDailyRollup.Dimension dimension,
+            @Param("dimensionKey") String dimensionKey,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM SalesDailyRollup r")
+    int deleteAllRollups();
+}
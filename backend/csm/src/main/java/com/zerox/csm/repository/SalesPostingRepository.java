@@ -0,0 +1,19 @@
+package com.zerox.csm.repository;
+
+import com.zerox.csm.model.SalesPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface SalesPostingRepository extends JpaRepository<SalesPosting, UUID> {
+
+    boolean existsBySourceIdAndKind(UUID sourceId, SalesPosting.Kind kind);
+
+    @Modifying
+    @Query("DELETE FROM SalesPosting p")
+    int deleteAllPostings();
+}
@@ -2,6 +2,8 @@ package com.zerox.csm.repository;
 
 import com.zerox.csm.model.StockAlert;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,13 @@ public interface StockAlertRepository extends JpaRepository<StockAlert, UUID> {
     List<StockAlert> findByProductProductId(UUID productId);
     
     List<StockAlert> findTop10ByOrderByCreatedAtDesc();
-} 
\ No newline at end of file
+
+    @Query("SELECT a FROM StockAlert a JOIN FETCH a.product WHERE a.status = com.zerox.csm.model.StockAlert.AlertStatus.OPEN")
+    List<StockAlert> findOpenWithProduct();
+
+    // Rows from before alerts had a state; the engine re-opens whatever is still low
+    @Modifying
+    @Query("UPDATE StockAlert a SET a.status = com.zerox.csm.model.StockAlert.AlertStatus.RESOLVED, " +
+            "a.resolvedAt = a.createdAt WHERE a.status IS NULL")
+    int resolveUnstated();
+}
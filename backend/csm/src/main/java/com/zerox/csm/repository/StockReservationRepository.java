@@ -0,0 +1,46 @@
+package com.zerox.csm.repository;
+
+import com.zerox.csm.model.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    @Query("SELECT r FROM StockReservation r JOIN FETCH r.product WHERE r.order.orderId = :orderId AND r.status IN :statuses")
+    List<StockReservation> findByOrderIdAndStatusIn(
+            @Param("orderId") UUID orderId,
+            @Param("statuses") Collection<StockReservation.Status> statuses);
+
+    boolean existsByOrderOrderId(UUID orderId);
+
+    @Query("SELECT r FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now ORDER BY r.expiresAt ASC")
+    List<StockReservation> findExpiring(
+            @Param("status") StockReservation.Status status,
+            @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    // Conditional transition: only one caller can move a reservation out of a given state
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.reservationId = :reservationId AND r.status = :from")
+    int transition(
+            @Param("reservationId") UUID reservationId,
+            @Param("from") StockReservation.Status from,
+            @Param("to") StockReservation.Status to);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.order.orderId = :orderId AND r.status = :from")
+    int transitionByOrderId(
+            @Param("orderId") UUID orderId,
+            @Param("from") StockReservation.Status from,
+            @Param("to") StockReservation.Status to);
+}
@@ -25,6 +25,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("SELECT u FROM User u WHERE u.userId = :userId")
     Optional<User> findByIdIncludeDeleted(@Param("userId") UUID userId);
 
+    // Empty for deleted users, whose tokens are then treated as revoked
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.userId = :userId")
+    Optional<Integer> findTokenVersion(@Param("userId") UUID userId);
+
     // Active user only
     @Query("SELECT u FROM User u WHERE u.email = :email AND u.isDeleted = false")
     Optional<User> findActiveByEmail(@Param("email") String email);
@@ -5,11 +5,12 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,7 +22,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenVersions tokenVersions;
+
+    @Value("${app.security.jwt.stateless-claims:true}")
+    private boolean statelessClaims;
 
     @Override
     protected void doFilterInternal(
@@ -39,12 +44,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        // Signature and claims are checked once per token, not on every request
+        final JwtService.VerifiedToken verified = jwtService.verify(jwt);
+        userEmail = verified.subject();
         
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            UserDetails userDetails = resolvePrincipal(verified);
             
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (userDetails != null && jwtService.isTokenUnexpired(verified)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -61,4 +68,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+
+    // Tokens with identity claims are trusted as long as their version is current;
+    // older tokens fall back to loading the user. Null means the token was revoked.
+    private UserDetails resolvePrincipal(JwtService.VerifiedToken verified) {
+        if (!statelessClaims || !verified.hasIdentityClaims()) {
+            return principalCache.get(verified.subject());
+        }
+        if (!tokenVersions.isCurrent(verified.userId(), verified.tokenVersion())) {
+            return null;
+        }
+        return User.withUsername(verified.subject())
+                .password("")
+                .authorities("ROLE_" + verified.role())
+                .build();
+    }
+}
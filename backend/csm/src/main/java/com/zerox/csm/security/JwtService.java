@@ -1,6 +1,12 @@
 package com.zerox.csm.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.zerox.csm.dto.CacheDto;
+import com.zerox.csm.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -8,20 +14,72 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
+    private final long jwtExpiration;
+    // Built once: decoding the secret and building the parser used to happen on every parse
+    private final Key signingKey;
+    private final JwtParser jwtParser;
+    // Tokens that already passed signature and expiry checks, keyed by SHA-256 of the token
+    // so raw bearer tokens are not kept in memory. An entry never outlives the token's exp.
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
-    @Value("${application.security.jwt.expiration}")
-    private long jwtExpiration;
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+    static final String TOKEN_VERSION_CLAIM = "ver";
+
+    // userId, role and tokenVersion are null for tokens issued before they were added
+    public record VerifiedToken(String subject, Date expiresAt, UUID userId, String role, Integer tokenVersion) {
+
+        public boolean hasIdentityClaims() {
+            return userId != null && role != null && tokenVersion != null;
+        }
+    }
+
+    public JwtService(
+            @Value("${application.security.jwt.secret-key}") String secretKey,
+            @Value("${application.security.jwt.expiration}") long jwtExpiration,
+            @Value("${app.security.token-cache.max-size:10000}") long tokenCacheSize,
+            @Value("${app.security.token-cache.ttl:PT15M}") Duration tokenCacheTtl
+    ) {
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long untilExp = Duration.ofMillis(token.expiresAt().getTime() - System.currentTimeMillis()).toNanos();
+                        return Math.max(0, Math.min(untilExp, tokenCacheTtl.toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -32,10 +90,51 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    // Subject and expiry of a token with a valid signature, parsed at most once per token.
+    // Throws the usual JwtException for tokens that are malformed, tampered with or expired.
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && cached.expiresAt().after(new Date())) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.getExpiration(),
+                userId != null ? UUID.fromString(userId) : null,
+                claims.get(ROLE_CLAIM, String.class),
+                claims.get(TOKEN_VERSION_CLAIM, Integer.class)
+        );
+        if (verified.subject() != null && verified.expiresAt() != null) {
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
+    }
+
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    // Carries what JwtAuthenticationFilter needs to authenticate without loading the user
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getUserId().toString());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        claims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+
+        return generateToken(
+                claims,
+                org.springframework.security.core.userdetails.User.builder()
+                        .username(user.getEmail())
+                        .password(user.getPasswordHash())
+                        .authorities("ROLE_" + user.getRole().name())
+                        .build()
+        );
+    }
+
     public String generateToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails
@@ -53,37 +152,35 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final VerifiedToken verified = verify(token);
+        return userDetails.getUsername().equals(verified.subject()) && isTokenUnexpired(verified);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenUnexpired(VerifiedToken token) {
+        return token.expiresAt() != null && token.expiresAt().after(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public CacheDto.CacheStatsResponse tokenCacheStats() {
+        return CacheDto.CacheStatsResponse.of("verified-tokens", verifiedTokens);
     }
 
     private Claims extractAllClaims(String token) {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        Key signingKey = Keys.hmacShaKeyFor(keyBytes);
-
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
     }
 }
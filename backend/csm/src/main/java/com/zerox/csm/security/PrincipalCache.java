@@ -0,0 +1,59 @@
+package com.zerox.csm.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerox.csm.dto.CacheDto;
+import com.zerox.csm.event.UserAccountChangedEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Short-lived cache of the principals JwtAuthenticationFilter puts in the security context,
+// so an authenticated request does not cost a users query. Role and status changes made through
+// UserManagementService evict the user at once; the TTL bounds staleness for anything else.
+@Component
+public class PrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final Cache<String, UserDetails> principals;
+
+    public PrincipalCache(
+            @Qualifier("userDetailsService") UserDetailsService userDetailsService,
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.principal-cache.ttl:PT1M}") Duration ttl
+    ) {
+        this.userDetailsService = userDetailsService;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Throws UsernameNotFoundException for unknown users; misses are not cached
+    public UserDetails get(String email) {
+        return principals.get(email, this::load);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        principals.invalidate(event.email());
+    }
+
+    public CacheDto.CacheStatsResponse stats() {
+        return CacheDto.CacheStatsResponse.of("principals", principals);
+    }
+
+    // The filter never checks the password, so the hash is not kept in memory
+    private UserDetails load(String email) {
+        return User.withUserDetails(userDetailsService.loadUserByUsername(email))
+                .password("")
+                .build();
+    }
+}
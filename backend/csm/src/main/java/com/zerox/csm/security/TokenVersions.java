@@ -0,0 +1,54 @@
+package com.zerox.csm.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerox.csm.dto.CacheDto;
+import com.zerox.csm.event.UserAccountChangedEvent;
+import com.zerox.csm.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Current token version per user, the revocation check for tokens that carry their own role.
+// A user costs one query per TTL instead of one per request. Changes made on this instance evict
+// the entry on commit; the TTL bounds how long other instances keep accepting a revoked token.
+@Component
+public class TokenVersions {
+
+    private static final int NO_USER = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, Integer> versions;
+
+    public TokenVersions(
+            UserRepository userRepository,
+            @Value("${app.security.token-version.max-size:100000}") long maxSize,
+            @Value("${app.security.token-version.ttl:PT1M}") Duration ttl
+    ) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isCurrent(UUID userId, int tokenVersion) {
+        int current = versions.get(userId, id -> userRepository.findTokenVersion(id).orElse(NO_USER));
+        return current != NO_USER && current == tokenVersion;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        if (event.userId() != null) {
+            versions.invalidate(event.userId());
+        }
+    }
+
+    public CacheDto.CacheStatsResponse stats() {
+        return CacheDto.CacheStatsResponse.of("token-versions", versions);
+    }
+}
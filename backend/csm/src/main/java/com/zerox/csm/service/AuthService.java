@@ -4,6 +4,7 @@ import com.zerox.csm.dto.AuthDto.LoginRequest;
 import com.zerox.csm.dto.AuthDto.RegisterRequest;
 import com.zerox.csm.dto.AuthDto.AuthResponse;
 import com.zerox.csm.dto.UserDto;
+import com.zerox.csm.event.UserAccountChangedEvent;
 import com.zerox.csm.exception.PasswordChangeException;
 import com.zerox.csm.exception.ResourceNotFoundException;
 import com.zerox.csm.model.User;
@@ -11,6 +12,7 @@ import com.zerox.csm.model.UserRole;
 import com.zerox.csm.repository.UserRepository;
 import com.zerox.csm.security.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -30,6 +32,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthResponse login(LoginRequest request) {
         authenticationManager.authenticate(
@@ -39,13 +42,7 @@ public class AuthService {
         User user = userRepository.findTopByEmailAndIsDeletedFalseOrderByCreatedAtDesc(request.email())
                 .orElseThrow(() -> new UsernameNotFoundException("No active account found for this email"));
 
-        String token = jwtService.generateToken(
-                org.springframework.security.core.userdetails.User.builder()
-                        .username(user.getEmail())
-                        .password(user.getPasswordHash())
-                        .authorities("ROLE_" + user.getRole().name())
-                        .build()
-        );
+        String token = jwtService.generateToken(user);
 
         user.setLastLogin(LocalDateTime.now());
         userRepository.save(user);
@@ -63,7 +60,10 @@ public class AuthService {
             throw new IllegalStateException("Account already deleted");
         }
 
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
         userRepository.softDelete(userId);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(userId, user.getEmail()));
     }
 
     public AuthResponse register(RegisterRequest request) {
@@ -80,7 +80,10 @@ public class AuthService {
             user.setPasswordHash(passwordEncoder.encode(request.password()));
             user.setDeleted(false);
             user.setCreatedAt(LocalDateTime.now());
+            // Tokens from before the deletion stay invalid, and the caches drop the deleted account
+            user.setTokenVersion(user.getTokenVersion() + 1);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserAccountChangedEvent(user.getUserId(), user.getEmail()));
             return generateAuthorResponseWithoutToken(user);
         }
 
@@ -105,13 +108,7 @@ public class AuthService {
     }
 
     private AuthResponse generateAuthorResponse(User user) {
-        String jwt = jwtService.generateToken(
-                org.springframework.security.core.userdetails.User.builder()
-                        .username(user.getEmail())
-                        .password(user.getPasswordHash())
-                        .authorities("ROLE_" + user.getRole().name())
-                        .build()
-        );
+        String jwt = jwtService.generateToken(user);
 
         return new AuthResponse(jwt, user.getEmail(), user.getRole().name(),
                 user.getFullName(), user.getPhone(), user.getUserId());
@@ -0,0 +1,20 @@
+package com.zerox.csm.service;
+
+import java.nio.file.Path;
+
+// Where uploaded image bytes live, addressed by a key derived from their content.
+// LocalBlobStore keeps them on disk; an object storage backend would implement the same
+// methods and keep a local copy of hot blobs for localPath.
+public interface BlobStore {
+
+    // Copies the file in under the key. A blob that already exists is left untouched,
+    // since the same key always means the same bytes.
+    void put(String key, Path source);
+
+    boolean exists(String key);
+
+    // A readable local file with the blob's bytes, used for serving and resizing
+    Path localPath(String key);
+
+    void delete(String key);
+}
@@ -0,0 +1,74 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.model.CategoryClosure;
+import com.zerox.csm.repository.CategoryClosureRepository;
+import com.zerox.csm.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Keeps the category_closure table in step with the hierarchy. CategoryService calls it in the
+// same transaction as each category write, so product queries never see a half-moved subtree.
+@Component
+@RequiredArgsConstructor
+public class CategoryClosureIndex {
+
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryTree categoryTree;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCreated(UUID categoryId, UUID parentId) {
+        categoryClosureRepository.insertLeaf(categoryId, parentId);
+    }
+
+    // Re-links the category and everything below it; parentId null makes it a root
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onMoved(UUID categoryId, UUID parentId) {
+        categoryClosureRepository.detachSubtree(categoryId);
+        if (parentId != null) {
+            categoryClosureRepository.attachSubtree(categoryId, parentId);
+        }
+    }
+
+    // Also drops the rows of subcategories the delete cascaded to
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onDeleted(UUID categoryId) {
+        categoryClosureRepository.deleteDangling();
+    }
+
+    // Fills the table on first start and repairs it if categories were changed outside CategoryService
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void verify() {
+        long categories = categoryRepository.count();
+        if (categoryClosureRepository.countSelfRows() != categories) {
+            System.out.println("Category closure is out of date, rebuilding it for " + categories + " categories");
+            rebuild();
+        }
+    }
+
+    @Transactional
+    public void rebuild() {
+        categoryTree.rebuild();
+        List<CategoryClosure> links = new ArrayList<>();
+        for (CategoryTree.Node node : categoryTree.all()) {
+            List<UUID> path = node.path();
+            for (int i = 0; i < path.size(); i++) {
+                links.add(CategoryClosure.builder()
+                        .id(new CategoryClosure.Key(path.get(i), node.categoryId()))
+                        .depth(path.size() - 1 - i)
+                        .build());
+            }
+        }
+        categoryClosureRepository.deleteAllLinks();
+        categoryClosureRepository.saveAll(links);
+    }
+}
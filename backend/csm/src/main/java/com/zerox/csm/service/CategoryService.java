@@ -3,17 +3,22 @@ package com.zerox.csm.service;
 import com.zerox.csm.dto.CategoryDto.CategoryRequest;
 import com.zerox.csm.dto.CategoryDto.CategoryResponse;
 import com.zerox.csm.dto.CategoryDto.CategoryBriefResponse;
+import com.zerox.csm.dto.CategoryDto.CategoryTreeResponse;
 import com.zerox.csm.dto.CategoryDto.ProductInCategoryResponse;
+import com.zerox.csm.event.CategoryChangedEvent;
 import com.zerox.csm.exception.ResourceNotFoundException;
 import com.zerox.csm.model.Category;
 import com.zerox.csm.model.Product;
 import com.zerox.csm.repository.CategoryRepository;
+import com.zerox.csm.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,31 +27,46 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryTree categoryTree;
+    private final CategoryClosureIndex categoryClosureIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
+    // Category reads are served from the in-memory tree; only writes go to the database
     public List<CategoryResponse> getAllCategories() {
-        return categoryRepository.findAll().stream()
+        return categoryTree.all().stream()
                 .map(this::mapToCategoryResponse)
                 .collect(Collectors.toList());
     }
 
     public List<CategoryResponse> getSidebarCategories() {
-        return categoryRepository.findBySidebarTrue().stream()
+        return categoryTree.sidebar().stream()
                 .map(this::mapToCategoryResponse)
                 .collect(Collectors.toList());
     }
 
     public CategoryResponse getCategory(UUID categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
-        
-        return mapToCategoryResponse(category);
+        return mapToCategoryResponse(categoryTree.get(categoryId));
     }
 
-    public List<ProductInCategoryResponse> getCategoryProducts(UUID categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
-        
-        return category.getProducts().stream()
+    public List<CategoryTreeResponse> getCategoryTree() {
+        return categoryTree.roots().stream()
+                .map(this::mapToCategoryTreeResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Root first, ending with the category itself
+    public List<CategoryBriefResponse> getBreadcrumbs(UUID categoryId) {
+        return categoryTree.breadcrumbs(categoryId).stream()
+                .map(this::mapToCategoryBriefResponse)
+                .collect(Collectors.toList());
+    }
+
+    // includeSubcategories also returns products of every category below this one
+    public List<ProductInCategoryResponse> getCategoryProducts(UUID categoryId, boolean includeSubcategories) {
+        Set<UUID> categoryIds = includeSubcategories ? categoryTree.subtree(categoryId) : Set.of(categoryTree.get(categoryId).categoryId());
+
+        return productRepository.findByCategoryCategoryIdIn(categoryIds).stream()
                 .map(this::mapToProductInCategoryResponse)
                 .collect(Collectors.toList());
     }
@@ -76,14 +96,19 @@ public class CategoryService {
                 .subCategories(new ArrayList<>())
                 .products(new ArrayList<>())
                 .build();
+
+        Category savedCategory = categoryRepository.save(category);
+        categoryClosureIndex.onCreated(savedCategory.getCategoryId(), parentCategory != null ? parentCategory.getCategoryId() : null);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryId()));
         
-        return mapToCategoryResponse(categoryRepository.save(category));
+        return mapToCategoryResponse(savedCategory);
     }
 
     @Transactional
     public CategoryResponse updateCategory(UUID categoryId, CategoryRequest request) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
+        boolean moved = false;
         
         // Check if new parent category is different
         if (request.parentCategoryId() != null && 
@@ -98,13 +123,17 @@ public class CategoryService {
             Category parentCategory = categoryRepository.findById(request.parentCategoryId())
                     .orElseThrow(() -> new ResourceNotFoundException("Parent category not found"));
             
-            // Ensure no circular references in hierarchy
-            validateNoCyclicReference(parentCategory, categoryId);
+            // Ensure no circular references in hierarchy: the new parent must not sit below this category
+            if (categoryTree.wouldCreateCycle(categoryId, parentCategory.getCategoryId())) {
+                throw new IllegalArgumentException("Circular category reference detected");
+            }
             
             category.setParentCategory(parentCategory);
+            moved = true;
         } else if (request.parentCategoryId() == null && category.getParentCategory() != null) {
             // Remove parent reference if null is passed
             category.setParentCategory(null);
+            moved = true;
         }
         
         category.setName(request.name());
@@ -125,7 +154,13 @@ public class CategoryService {
             category.setSidebar(request.sidebar());
         }
 
-        return mapToCategoryResponse(categoryRepository.save(category));
+        Category savedCategory = categoryRepository.save(category);
+        if (moved) {
+            categoryClosureIndex.onMoved(categoryId, request.parentCategoryId());
+        }
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+
+        return mapToCategoryResponse(savedCategory);
     }
 
     @Transactional
@@ -134,7 +169,10 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
 
         category.setSidebar(sidebar);
-        return mapToCategoryResponse(categoryRepository.save(category));
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+
+        return mapToCategoryResponse(savedCategory);
     }
 
     @Transactional
@@ -152,25 +190,15 @@ public class CategoryService {
             for (Category subCategory : category.getSubCategories()) {
                 subCategory.setParentCategory(parentCategory);
                 categoryRepository.save(subCategory);
+                categoryClosureIndex.onMoved(subCategory.getCategoryId(), parentCategory.getCategoryId());
             }
         }
         
         categoryRepository.delete(category);
+        categoryClosureIndex.onDeleted(categoryId);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
     }
 
-    // Helper method to validate no cyclic reference in category hierarchy
-    private void validateNoCyclicReference(Category category, UUID potentialChildId) {
-        if (category == null) return;
-        
-        if (category.getCategoryId().equals(potentialChildId)) {
-            throw new IllegalArgumentException("Circular category reference detected");
-        }
-        
-        if (category.getParentCategory() != null) {
-            validateNoCyclicReference(category.getParentCategory(), potentialChildId);
-        }
-    }
-    
     // Helper method to generate a slug from name
     private String generateSlug(String name) {
         if (name == null || name.isBlank()) {
@@ -207,6 +235,41 @@ public class CategoryService {
         );
     }
     
+    private CategoryResponse mapToCategoryResponse(CategoryTree.Node node) {
+        return new CategoryResponse(
+                node.categoryId(),
+                node.name(),
+                node.slug(),
+                node.description(),
+                node.icon(),
+                node.sidebar(),
+                node.parentCategoryId(),
+                node.parentCategoryName(),
+                node.children().stream()
+                        .map(this::mapToCategoryBriefResponse)
+                        .collect(Collectors.toList()),
+                node.createdAt(),
+                node.updatedAt()
+        );
+    }
+
+    private CategoryBriefResponse mapToCategoryBriefResponse(CategoryTree.Node node) {
+        return new CategoryBriefResponse(node.categoryId(), node.name(), node.slug(), node.icon());
+    }
+
+    private CategoryTreeResponse mapToCategoryTreeResponse(CategoryTree.Node node) {
+        return new CategoryTreeResponse(
+                node.categoryId(),
+                node.name(),
+                node.slug(),
+                node.icon(),
+                node.sidebar(),
+                node.children().stream()
+                        .map(this::mapToCategoryTreeResponse)
+                        .collect(Collectors.toList())
+        );
+    }
+    
     private ProductInCategoryResponse mapToProductInCategoryResponse(Product product) {
         return new ProductInCategoryResponse(
                 product.getProductId(),
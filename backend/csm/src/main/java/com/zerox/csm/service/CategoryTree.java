@@ -0,0 +1,213 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.event.CategoryChangedEvent;
+import com.zerox.csm.exception.ResourceNotFoundException;
+import com.zerox.csm.model.Category;
+import com.zerox.csm.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Immutable snapshot of the whole category hierarchy. Every node carries its ancestor path
+// from the root and the ids of its whole subtree, so reads (sidebar, tree, breadcrumbs,
+// subtree filters, cycle checks) never touch the database. Any category write rebuilds the
+// snapshot with one query and swaps it in atomically; readers keep the one they started with.
+@Component
+@RequiredArgsConstructor
+public class CategoryTree {
+
+    public record Node(
+            UUID categoryId,
+            String name,
+            String slug,
+            String description,
+            String icon,
+            boolean sidebar,
+            UUID parentCategoryId,
+            String parentCategoryName,
+            List<Node> children,
+            // Root first, ending with this category
+            List<UUID> path,
+            // This category and everything below it
+            Set<UUID> subtree,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt
+    ) {
+        public int depth() {
+            return path.size() - 1;
+        }
+    }
+
+    // ordered lists every category depth-first: a parent before its children, siblings by name
+    private record Snapshot(Map<UUID, Node> nodes, List<UUID> roots, List<UUID> ordered) {
+    }
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot;
+
+    // Synchronized so rebuilds load and publish one after another: a slow rebuild that read the
+    // categories earlier can never replace the snapshot of one that read them later
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Category> categories = categoryRepository.findAll();
+        snapshot = build(categories);
+        System.out.println("Category tree rebuilt with " + categories.size() + " categories");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    public List<Node> all() {
+        Snapshot current = current();
+        return current.ordered().stream().map(current.nodes()::get).toList();
+    }
+
+    public List<Node> roots() {
+        Snapshot current = current();
+        return current.roots().stream().map(current.nodes()::get).toList();
+    }
+
+    public List<Node> sidebar() {
+        return all().stream().filter(Node::sidebar).toList();
+    }
+
+    public Optional<Node> find(UUID categoryId) {
+        return Optional.ofNullable(current().nodes().get(categoryId));
+    }
+
+    public Node get(UUID categoryId) {
+        return get(current(), categoryId);
+    }
+
+    // Root first, ending with the category itself
+    public List<Node> breadcrumbs(UUID categoryId) {
+        Snapshot current = current();
+        return get(current, categoryId).path().stream().map(current.nodes()::get).toList();
+    }
+
+    public Set<UUID> subtree(UUID categoryId) {
+        return get(categoryId).subtree();
+    }
+
+    // True when making candidateParentId the parent of categoryId would close a loop
+    public boolean wouldCreateCycle(UUID categoryId, UUID candidateParentId) {
+        Node category = current().nodes().get(categoryId);
+        return categoryId.equals(candidateParentId)
+                || (category != null && category.subtree().contains(candidateParentId));
+    }
+
+    // Lookups that follow ids from a node resolve them in the same snapshot, never a newer one
+    private Node get(Snapshot current, UUID categoryId) {
+        Node node = current.nodes().get(categoryId);
+        if (node == null) {
+            throw new ResourceNotFoundException("Category not found");
+        }
+        return node;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // A request that arrives before ApplicationReadyEvent builds the first snapshot itself
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot build(List<Category> categories) {
+        Map<UUID, Category> byId = new HashMap<>();
+        Map<UUID, UUID> parents = new HashMap<>();
+        Map<UUID, List<UUID>> children = new HashMap<>();
+        for (Category category : categories) {
+            byId.put(category.getCategoryId(), category);
+        }
+        // Sorted by name so children and roots come out in a stable, readable order
+        List<Category> byName = new ArrayList<>(categories);
+        byName.sort(Comparator.comparing(Category::getName, String.CASE_INSENSITIVE_ORDER));
+        List<UUID> roots = new ArrayList<>();
+        for (Category category : byName) {
+            // Reading the id of a lazy parent does not initialize it
+            UUID parentId = category.getParentCategory() != null ? category.getParentCategory().getCategoryId() : null;
+            if (parentId != null && byId.containsKey(parentId)) {
+                parents.put(category.getCategoryId(), parentId);
+                children.computeIfAbsent(parentId, key -> new ArrayList<>()).add(category.getCategoryId());
+            } else {
+                roots.add(category.getCategoryId());
+            }
+        }
+
+        Map<UUID, Node> nodes = new HashMap<>();
+        List<UUID> ordered = new ArrayList<>();
+        Deque<UUID> path = new ArrayDeque<>();
+        for (UUID rootId : roots) {
+            buildSubtree(rootId, byId, parents, children, path, nodes, ordered);
+        }
+        // A parent loop written outside CategoryService would leave nodes unreachable from any root;
+        // they are cut loose as roots rather than dropped
+        for (Category category : byName) {
+            if (!nodes.containsKey(category.getCategoryId())) {
+                System.out.println("Category " + category.getCategoryId() + " is part of a parent loop, treating it as a root");
+                roots.add(category.getCategoryId());
+                parents.remove(category.getCategoryId());
+                buildSubtree(category.getCategoryId(), byId, parents, children, path, nodes, ordered);
+            }
+        }
+        return new Snapshot(Map.copyOf(nodes), List.copyOf(roots), List.copyOf(ordered));
+    }
+
+    private Set<UUID> buildSubtree(
+            UUID categoryId,
+            Map<UUID, Category> byId,
+            Map<UUID, UUID> parents,
+            Map<UUID, List<UUID>> children,
+            Deque<UUID> path,
+            Map<UUID, Node> nodes,
+            List<UUID> ordered
+    ) {
+        ordered.add(categoryId);
+        path.addLast(categoryId);
+        Set<UUID> subtree = new HashSet<>();
+        subtree.add(categoryId);
+        List<Node> childNodes = new ArrayList<>();
+        for (UUID childId : children.getOrDefault(categoryId, List.of())) {
+            if (!nodes.containsKey(childId) && !path.contains(childId)) {
+                subtree.addAll(buildSubtree(childId, byId, parents, children, path, nodes, ordered));
+                childNodes.add(nodes.get(childId));
+            }
+        }
+        path.removeLast();
+
+        Category category = byId.get(categoryId);
+        List<UUID> ancestors = new ArrayList<>(path);
+        ancestors.add(categoryId);
+        nodes.put(categoryId, new Node(
+                categoryId,
+                category.getName(),
+                category.getSlug(),
+                category.getDescription(),
+                category.getIcon(),
+                Boolean.TRUE.equals(category.getSidebar()),
+                parents.get(categoryId),
+                parents.containsKey(categoryId) ? byId.get(parents.get(categoryId)).getName() : null,
+                List.copyOf(childNodes),
+                List.copyOf(ancestors),
+                Set.copyOf(subtree),
+                category.getCreatedAt(),
+                category.getUpdatedAt()
+        ));
+        return subtree;
+    }
+}
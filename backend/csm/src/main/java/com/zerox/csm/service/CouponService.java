@@ -1,6 +1,7 @@
 package com.zerox.csm.service;
 
 import com.zerox.csm.dto.CouponDto;
+import com.zerox.csm.event.CouponRedeemedEvent;
 import com.zerox.csm.exception.ResourceNotFoundException;
 import com.zerox.csm.exception.ValidationException;
 import com.zerox.csm.model.Category;
@@ -12,9 +13,11 @@ import com.zerox.csm.model.User;
 import com.zerox.csm.repository.CategoryRepository;
 import com.zerox.csm.repository.CouponRepository;
 import com.zerox.csm.repository.CouponUsageRepository;
+import com.zerox.csm.repository.OrderRepository;
 import com.zerox.csm.repository.ProductRepository;
 import com.zerox.csm.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -34,6 +37,7 @@ public class CouponService {
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
     
     @Transactional
     public CouponDto.CouponResponse createCoupon(CouponDto.CouponRequest request) {
@@ -223,12 +227,43 @@ public class CouponService {
         return new CouponDto.CouponValidationResponse(true, "Coupon is valid", discountAmount);
     }
     
+    // Counts the redemption in the checkout transaction with a conditional update, so concurrent
+    // checkouts cannot take the coupon past its maximum uses
+    @Transactional
+    public void reserveUse(Coupon coupon) {
+        if (couponRepository.reserveUse(coupon.getCouponId()) == 0) {
+            throw new ValidationException("Coupon has reached maximum uses");
+        }
+    }
+
+    // Writes the usage record of a coupon redeemed at checkout; the use itself was already counted
+    // by reserveUse. Skips orders already recorded, since the event may be delivered more than once
+    @EventListener
+    @Transactional
+    public void onCouponRedeemed(CouponRedeemedEvent event) {
+        if (couponUsageRepository.existsByOrderOrderId(event.orderId())) {
+            return;
+        }
+
+        Coupon coupon = couponRepository.findById(event.couponId())
+                .orElseThrow(() -> new ResourceNotFoundException("Coupon not found"));
+        User user = userRepository.findById(event.userId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Order order = orderRepository.findById(event.orderId())
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+
+        saveCouponUsage(coupon, user, order, event.discountAmount());
+    }
+
     @Transactional
     public CouponDto.CouponUsageResponse recordCouponUsage(Coupon coupon, User user, Order order, BigDecimal discountAmount) {
         // Increment coupon usage count
         coupon.setCurrentUses(coupon.getCurrentUses() + 1);
         couponRepository.save(coupon);
-        
+        return saveCouponUsage(coupon, user, order, discountAmount);
+    }
+
+    private CouponDto.CouponUsageResponse saveCouponUsage(Coupon coupon, User user, Order order, BigDecimal discountAmount) {
         // Create coupon usage record
         CouponUsage usage = CouponUsage.builder()
                 .coupon(coupon)
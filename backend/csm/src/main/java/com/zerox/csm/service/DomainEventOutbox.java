@@ -0,0 +1,53 @@
+package com.zerox.csm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox.csm.event.DomainEvent;
+import com.zerox.csm.model.OutboxEvent;
+import com.zerox.csm.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+// Write side of the domain event bus. Events are stored with the business change,
+// so they are delivered if and only if that change commits.
+@Service
+@RequiredArgsConstructor
+public class DomainEventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final DomainEventRelay domainEventRelay;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(DomainEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize " + event.getClass().getSimpleName(), ex);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(event.getClass().getName())
+                .payload(payload)
+                .status(OutboxEvent.Status.PENDING)
+                .availableAt(now)
+                .createdAt(now)
+                .build());
+
+        // Relay right after commit instead of waiting for the next poll
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                domainEventRelay.requestDrain();
+            }
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package com.zerox.csm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox.csm.event.DomainEvent;
+import com.zerox.csm.model.OutboxEvent;
+import com.zerox.csm.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Read side of the domain event bus. Pending events are handed to @EventListener subscribers
+// off the request thread. Subscribers run in the same transaction that marks the event processed,
+// so their writes and the processed flag commit together; failures are retried with backoff
+// (at-least-once), so subscribers must tolerate seeing an event twice.
+@Component
+public class DomainEventRelay {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor domainEventExecutor;
+
+    private final AtomicBoolean drainRequested = new AtomicBoolean(false);
+    // Guarded by this for writes, so setting it waits out a drain in progress
+    private volatile boolean paused;
+
+    @Value("${app.events.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.events.initial-backoff:PT5S}")
+    private Duration initialBackoff;
+
+    public DomainEventRelay(
+            OutboxEventRepository outboxEventRepository,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("domainEventExecutor") TaskExecutor domainEventExecutor
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.domainEventExecutor = domainEventExecutor;
+    }
+
+    // Called after a commit that appended events; coalesces bursts into one drain
+    public void requestDrain() {
+        if (drainRequested.compareAndSet(false, true)) {
+            domainEventExecutor.execute(() -> {
+                drainRequested.set(false);
+                drain();
+            });
+        }
+    }
+
+    // Safety net for events whose after-commit nudge was lost, and for retries
+    @Scheduled(fixedDelayString = "${app.events.poll-interval:PT2S}")
+    public void poll() {
+        drain();
+    }
+
+    // Holds delivery back while work runs that subscribers must not interleave with, such as a rollup
+    // rebuild. Waits for a drain in progress first; events appended meanwhile stay pending and are
+    // delivered once the work is done. Returns false without running it if delivery is already paused.
+    public boolean runPaused(Runnable work) {
+        synchronized (this) {
+            if (paused) {
+                return false;
+            }
+            paused = true;
+        }
+        try {
+            work.run();
+            return true;
+        } finally {
+            paused = false;
+            requestDrain();
+        }
+    }
+
+    private synchronized void drain() {
+        if (paused) {
+            return;
+        }
+        List<OutboxEvent> due;
+        do {
+            due = outboxEventRepository.findDue(OutboxEvent.Status.PENDING, LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+            due.forEach(this::deliver);
+        } while (due.size() == BATCH_SIZE);
+    }
+
+    private void deliver(OutboxEvent record) {
+        record.setAttempts(record.getAttempts() + 1);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                eventPublisher.publishEvent(deserialize(record));
+                record.setStatus(OutboxEvent.Status.PROCESSED);
+                record.setProcessedAt(LocalDateTime.now());
+                record.setLastError(null);
+                outboxEventRepository.save(record);
+            });
+        } catch (RuntimeException ex) {
+            String error = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getName();
+            record.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            record.setProcessedAt(null);
+            if (record.getAttempts() >= maxAttempts) {
+                record.setStatus(OutboxEvent.Status.FAILED);
+                System.out.println("Domain event " + record.getEventId() + " (" + record.getEventType()
+                        + ") failed after " + record.getAttempts() + " attempts: " + error);
+            } else {
+                record.setStatus(OutboxEvent.Status.PENDING);
+                long factor = 1L << Math.min(record.getAttempts() - 1, 16);
+                record.setAvailableAt(LocalDateTime.now().plus(initialBackoff.multipliedBy(factor)));
+            }
+            outboxEventRepository.save(record);
+        }
+    }
+
+    private DomainEvent deserialize(OutboxEvent record) {
+        try {
+            Class<?> type = Class.forName(record.getEventType());
+            if (!DomainEvent.class.isAssignableFrom(type)) {
+                throw new IllegalStateException("Not a domain event: " + record.getEventType());
+            }
+            return (DomainEvent) objectMapper.readValue(record.getPayload(), type);
+        } catch (ClassNotFoundException | IOException ex) {
+            throw new IllegalStateException("Cannot read domain event " + record.getEventId(), ex);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.zerox.csm.service;
+
+import com.sendgrid.Response;
+import com.zerox.csm.model.EmailOutbox;
+import com.zerox.csm.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Drains the email outbox in the background. Each run sends a batch of due emails over the
+// shared SendGrid connection pool; transient failures are retried with exponential backoff.
+@Component
+@RequiredArgsConstructor
+public class EmailDispatcher {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+
+    @Value("${app.email.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.initial-backoff:PT30S}")
+    private Duration initialBackoff;
+
+    @Value("${app.email.max-backoff:PT1H}")
+    private Duration maxBackoff;
+
+    @Scheduled(fixedDelayString = "${app.email.dispatch-interval:PT5S}")
+    public void dispatch() {
+        List<EmailOutbox> due;
+        do {
+            due = emailOutboxRepository.findDue(
+                    EmailOutbox.Status.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+            due.forEach(this::send);
+        } while (due.size() == batchSize);
+    }
+
+    // No transaction here: each outcome is saved on its own so a slow send holds no DB connection
+    private void send(EmailOutbox email) {
+        email.setAttempts(email.getAttempts() + 1);
+        try {
+            Response response = emailService.deliver(email);
+            int status = response.getStatusCode();
+            if (status >= 200 && status < 300) {
+                email.setStatus(EmailOutbox.Status.SENT);
+                email.setSentAt(LocalDateTime.now());
+                email.setLastError(null);
+            } else if (status == 429 || status >= 500) {
+                retryLater(email, "HTTP " + status + ": " + response.getBody());
+            } else {
+                // Other 4xx responses will not succeed on retry
+                fail(email, "HTTP " + status + ": " + response.getBody());
+            }
+        } catch (IOException | RuntimeException ex) {
+            retryLater(email, ex.getMessage());
+        }
+        emailOutboxRepository.save(email);
+    }
+
+    private void retryLater(EmailOutbox email, String error) {
+        if (email.getAttempts() >= maxAttempts) {
+            fail(email, error);
+            return;
+        }
+        long factor = 1L << Math.min(email.getAttempts() - 1, 20);
+        Duration backoff = initialBackoff.multipliedBy(factor);
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        email.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+        email.setLastError(truncate(error));
+    }
+
+    private void fail(EmailOutbox email, String error) {
+        email.setStatus(EmailOutbox.Status.FAILED);
+        email.setLastError(truncate(error));
+        System.out.println("Giving up on email " + email.getEmailId() + " to " + email.getRecipient() + ": " + error);
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
@@ -2,28 +2,36 @@ package com.zerox.csm.service;
 
 import com.sendgrid.Method;
 import com.sendgrid.Request;
+import com.sendgrid.Response;
 import com.sendgrid.SendGrid;
 import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
+import com.zerox.csm.model.EmailOutbox;
+import com.zerox.csm.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
 public class EmailService {
-    @Value("${sendgrid.api.key}")
-    private String sendGridApiKey;
 
+    private static final String FROM_ADDRESS = "no-reply@zerox.com";
+
+    private final SendGrid sendGrid;
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    // Queues the email in the caller's transaction; EmailDispatcher sends it after commit,
+    // so checkout never waits on SendGrid and a rolled back order sends nothing
+    @Transactional
     public void sendOrderConfirmationEmail(String toEmail,
                                            String orderId,
                                            String orderDetails) {
 
-        Email from = new Email("no-reply@zerox.com");
-        Email to   = new Email(toEmail);
         String subject = "Your Order Confirmation - Order #" + orderId;
 
         // Build the HTML body
@@ -41,20 +49,30 @@ public class EmailService {
         </html>
         """.formatted(orderId, orderDetails);
 
-        Content content = new Content("text/html", html);
-        Mail mail = new Mail(from, subject, to, content);
-
-        SendGrid sg = new SendGrid(sendGridApiKey);
-        Request request = new Request();
+        queue(toEmail, subject, html);
+    }
 
-        try {
-            request.setMethod(Method.POST);
-            request.setEndpoint("mail/send");
-            request.setBody(mail.build());
-            sg.api(request);
-        } catch (IOException ex) {
-            throw new RuntimeException("Failed to send email", ex);
-        }
+    public void queue(String toEmail, String subject, String html) {
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(toEmail)
+                .subject(subject)
+                .htmlBody(html)
+                .status(EmailOutbox.Status.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
     }
 
+    // Sends one queued email over the shared client and returns the SendGrid response
+    public Response deliver(EmailOutbox email) throws IOException {
+        Content content = new Content("text/html", email.getHtmlBody());
+        Mail mail = new Mail(new Email(FROM_ADDRESS), email.getSubject(), new Email(email.getRecipient()), content);
+
+        Request request = new Request();
+        request.setMethod(Method.POST);
+        request.setEndpoint("mail/send");
+        request.setBody(mail.build());
+        return sendGrid.api(request);
+    }
 }
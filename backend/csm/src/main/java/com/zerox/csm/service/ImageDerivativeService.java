@@ -0,0 +1,380 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.exception.FileStorageException;
+import com.zerox.csm.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Resized and re-encoded copies of uploaded images, so a 200px product tile does not download
+// a multi-megabyte original. The configured widths are rendered in the background right after
+// upload; anything not rendered yet is queued on first request and kept on disk next to the originals,
+// fanned out by the first two bytes of the name (derivatives/ab/cd/abcd...-w400.jpg) like LocalBlobStore.
+// JPEG and PNG only: the JDK ships no WebP or AVIF encoder, and WebP uploads are served as uploaded.
+@Service
+public class ImageDerivativeService {
+
+    public enum Format {
+        JPEG("jpg", "image/jpeg"),
+        PNG("png", "image/png");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+    }
+
+    public record Derivative(Path path, String contentType) {
+    }
+
+    private static final String DERIVATIVE_DIR = "derivatives";
+
+    private final Path originals;
+    private final Path derivatives;
+    private final ImageLocator imageLocator;
+    private final TaskExecutor imageDerivativeExecutor;
+    private final List<Integer> widths;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final Duration renderWait;
+    private final ConcurrentMap<Path, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+
+    public ImageDerivativeService(
+            @Value("${app.upload.dir:uploads}") String uploadDir,
+            ImageLocator imageLocator,
+            @Qualifier("imageDerivativeExecutor") TaskExecutor imageDerivativeExecutor,
+            @Value("${app.images.widths:200,400,800,1200}") List<Integer> widths,
+            @Value("${app.images.jpeg-quality:0.8}") float jpegQuality,
+            @Value("${app.images.max-pixels:40000000}") long maxPixels,
+            @Value("${app.images.render-wait:PT5S}") Duration renderWait
+    ) {
+        this.originals = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.derivatives = originals.resolve(DERIVATIVE_DIR);
+        this.imageLocator = imageLocator;
+        this.imageDerivativeExecutor = imageDerivativeExecutor;
+        this.widths = widths.stream().sorted().toList();
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        this.renderWait = renderWait;
+        try {
+            Files.createDirectories(derivatives);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the image derivatives directory.", ex);
+        }
+    }
+
+    // Queues every configured width; a full queue just leaves them to be rendered on first request
+    public void renderAllAsync(String fileName) {
+        if (!canRender(fileName)) {
+            return;
+        }
+        try {
+            imageDerivativeExecutor.execute(() -> {
+                Path original = imageLocator.locate(fileName);
+                Format format = defaultFormat(fileName);
+                for (Integer width : widths) {
+                    Path target = derivativePath(fileName, width, format);
+                    CompletableFuture<Path> future = new CompletableFuture<>();
+                    // Already queued or running for a request; not waited for, so this thread is not tied up
+                    if (Files.isRegularFile(target) || rendering.putIfAbsent(target, future) != null) {
+                        continue;
+                    }
+                    renderInto(future, original, target, width, format);
+                    try {
+                        future.join();
+                    } catch (CompletionException ex) {
+                        System.out.println("Could not render " + width + "px derivative of " + fileName + ": " + ex.getCause().getMessage());
+                        return;
+                    }
+                }
+            });
+        } catch (TaskRejectedException ex) {
+            System.out.println("Image derivative queue is full, " + fileName + " will be rendered on demand");
+        }
+    }
+
+    // The derivative closest to the requested width (never wider than the original) in the requested format.
+    // Widths snap to the configured sizes so arbitrary values cannot fill the disk.
+    // A missing derivative is rendered on the bounded derivative executor, never on the calling thread, since
+    // one decode can take as much heap as max-pixels allows. Empty if it is not ready within the render wait
+    // or the queue is full; the render carries on and a later request finds it on disk.
+    public Optional<Derivative> resolve(String fileName, Integer width, String format) {
+        checkFileName(fileName);
+        Path original = imageLocator.locate(fileName);
+        if (!Files.isRegularFile(original)) {
+            throw new ResourceNotFoundException("Image not found: " + fileName);
+        }
+        Format targetFormat = format != null ? parseFormat(format) : defaultFormat(fileName);
+        if (!canRender(fileName)) {
+            throw new IllegalArgumentException("Resized variants are not available for " + extensionOf(fileName) + " images");
+        }
+        int targetWidth = snap(width);
+
+        Path target = derivativePath(fileName, targetWidth, targetFormat);
+        Derivative derivative = new Derivative(target, targetFormat.contentType());
+        if (Files.isRegularFile(target)) {
+            return Optional.of(derivative);
+        }
+
+        try {
+            submit(original, target, targetWidth, targetFormat).get(renderWait.toMillis(), TimeUnit.MILLISECONDS);
+            return Optional.of(derivative);
+        } catch (TaskRejectedException | TimeoutException ex) {
+            return Optional.empty();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof TaskRejectedException) {
+                return Optional.empty();
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new FileStorageException("Could not render image derivative", ex.getCause());
+        }
+    }
+
+    // One render per derivative at a time; a request for one already queued or running waits on the same future
+    private CompletableFuture<Path> submit(Path original, Path target, int width, Format format) {
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        CompletableFuture<Path> inFlight = rendering.putIfAbsent(target, future);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        try {
+            imageDerivativeExecutor.execute(() -> renderInto(future, original, target, width, format));
+        } catch (TaskRejectedException ex) {
+            rendering.remove(target, future);
+            future.completeExceptionally(ex);
+            throw ex;
+        }
+        return future;
+    }
+
+    private void renderInto(CompletableFuture<Path> future, Path original, Path target, int width, Format format) {
+        try {
+            if (!Files.isRegularFile(target)) {
+                render(original, target, width, format);
+            }
+            future.complete(target);
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        } finally {
+            rendering.remove(target, future);
+        }
+    }
+
+    private Path derivativePath(String fileName, int width, Format format) {
+        String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+        return shardOf(baseName).resolve(baseName + "-w" + width + "." + format.extension);
+    }
+
+    // Content hashes and the random UUIDs of older uploads both start with evenly spread hex digits
+    private Path shardOf(String baseName) {
+        if (baseName.length() < 4) {
+            return derivatives;
+        }
+        return derivatives.resolve(baseName.substring(0, 2)).resolve(baseName.substring(2, 4));
+    }
+
+    public void deleteDerivatives(String fileName) {
+        if (fileName == null || fileName.lastIndexOf('.') <= 0) {
+            return;
+        }
+        String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+        Path shard = shardOf(baseName);
+        if (!Files.isDirectory(shard)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(shard, baseName + "-w*")) {
+            for (Path derivative : stream) {
+                Files.deleteIfExists(derivative);
+            }
+        } catch (IOException ex) {
+            System.out.println("Could not delete derivatives of " + fileName + ": " + ex.getMessage());
+        }
+    }
+
+    private void render(Path original, Path target, int width, Format format) {
+        BufferedImage source = read(original);
+        int targetWidth = Math.min(width, source.getWidth());
+        BufferedImage scaled = scale(source, targetWidth, format == Format.PNG);
+
+        // Written to a temp file and moved, so a reader never sees a half-written derivative
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), "render-", "." + format.extension);
+            write(scaled, temp, format);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not write image derivative", ex);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Best effort; the temp file is not served
+                }
+            }
+        }
+    }
+
+    // Reads the size from the header first so an oversized image is rejected before it is decoded
+    private BufferedImage read(Path original) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image: " + original.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IllegalArgumentException("Image is too large to resize: " + original.getFileName());
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read image " + original.getFileName(), ex);
+        }
+    }
+
+    // Halves the image until it is within 2x of the target, then does one bilinear pass.
+    // A single pass from a much larger image skips source pixels and looks jagged.
+    private BufferedImage scale(BufferedImage source, int targetWidth, boolean keepAlpha) {
+        int type = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = width / 2 >= targetWidth ? width / 2 : targetWidth;
+            height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (!keepAlpha) {
+                    // JPEG has no alpha; transparent areas become white instead of black
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    private void write(BufferedImage image, Path target, Format format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format == Format.JPEG ? "jpeg" : "png").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format == Format.JPEG) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private int snap(Integer width) {
+        if (width == null) {
+            return widths.get(widths.size() - 1);
+        }
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be positive");
+        }
+        for (Integer candidate : widths) {
+            if (candidate >= width) {
+                return candidate;
+            }
+        }
+        return widths.get(widths.size() - 1);
+    }
+
+    private Format parseFormat(String format) {
+        String normalized = format.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals("jpg") || normalized.equals("jpeg")) {
+            return Format.JPEG;
+        }
+        if (normalized.equals("png")) {
+            return Format.PNG;
+        }
+        throw new IllegalArgumentException("Unsupported image format: " + format + ". Supported formats: "
+                + Arrays.stream(Format.values()).map(f -> f.name().toLowerCase()).toList());
+    }
+
+    // PNGs keep their transparency; everything else is served as JPEG
+    private Format defaultFormat(String fileName) {
+        return extensionOf(fileName).equals("png") ? Format.PNG : Format.JPEG;
+    }
+
+    private boolean canRender(String fileName) {
+        String extension = extensionOf(fileName);
+        return extension.equals("jpg") || extension.equals("jpeg") || extension.equals("png");
+    }
+
+    private String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private void checkFileName(String fileName) {
+        if (fileName.contains("/") || fileName.contains("\\") || fileName.contains("..") || fileName.lastIndexOf('.') <= 0) {
+            throw new ResourceNotFoundException("Image not found: " + fileName);
+        }
+    }
+}
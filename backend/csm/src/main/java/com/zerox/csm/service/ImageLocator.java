@@ -0,0 +1,37 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+// Maps the file name in an /api/images URL to the file holding it. Content-addressed names
+// (SHA-256 hex plus extension) live in the blob store; images uploaded before it keep their
+// random UUID names in the flat upload directory.
+@Component
+public class ImageLocator {
+
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]+");
+
+    private final Path uploads;
+    private final BlobStore blobStore;
+
+    public ImageLocator(@Value("${app.upload.dir:uploads}") String uploadDir, BlobStore blobStore) {
+        this.uploads = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.blobStore = blobStore;
+    }
+
+    public static boolean isBlobName(String fileName) {
+        return BLOB_NAME.matcher(fileName).matches();
+    }
+
+    public Path locate(String fileName) {
+        if (fileName.contains("/") || fileName.contains("\\") || fileName.contains("..")) {
+            throw new ResourceNotFoundException("Image not found: " + fileName);
+        }
+        return isBlobName(fileName) ? blobStore.localPath(fileName) : uploads.resolve(fileName);
+    }
+}
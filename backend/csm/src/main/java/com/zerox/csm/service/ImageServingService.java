@@ -0,0 +1,194 @@
+package com.zerox.csm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerox.csm.dto.CacheDto;
+import com.zerox.csm.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+// Writes image files with the HTTP caching and range semantics a CDN or browser expects.
+// Image names are the SHA-256 of the content (see ImageLocator; uploads from before the blob store
+// keep their never-reused random UUID names) and derivatives are keyed by name, width and format,
+// so a URL never points at different bytes and responses can be cached as immutable for a year.
+// A content-hash original uses its hash as the ETag, which stays valid when the blob is stored again;
+// derivatives and older uploads fall back to size and modification time.
+// Small files are served from memory; larger ones go out through Tomcat's sendfile when the
+// connector supports it, or FileChannel.transferTo otherwise, so they are not copied through the heap.
+@Service
+public class ImageServingService {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    // Request attributes Tomcat's NIO connector reads to send a file with sendfile after the servlet returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Size and modification time are kept so a replaced file is never served from memory
+    private record CachedFile(byte[] bytes, long size, long lastModified) {
+    }
+
+    private final Cache<Path, CachedFile> hotFiles;
+    private final long maxCachedFileSize;
+
+    public ImageServingService(
+            @Value("${app.images.memory-cache.max-size:32MB}") DataSize maxCacheSize,
+            @Value("${app.images.memory-cache.max-file-size:64KB}") DataSize maxCachedFileSize
+    ) {
+        this.maxCachedFileSize = maxCachedFileSize.toBytes();
+        this.hotFiles = Caffeine.newBuilder()
+                .maximumWeight(maxCacheSize.toBytes())
+                .weigher((Path path, CachedFile file) -> file.bytes().length)
+                .recordStats()
+                .build();
+    }
+
+    public void serve(Path file, String contentType, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            throw new ResourceNotFoundException("Image not found: " + file.getFileName());
+        }
+        if (!attributes.isRegularFile()) {
+            throw new ResourceNotFoundException("Image not found: " + file.getFileName());
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = etagOf(file, size, lastModified);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag and Last-Modified, and answers If-None-Match / If-Modified-Since with a 304
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && size > 0 && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges = parseRanges(range);
+            // Multiple ranges are answered with the whole file, which RFC 9110 allows
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+                if (start >= size || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + file.getFileName() + "\"");
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (size <= maxCachedFileSize) {
+            byte[] bytes = cached(file, size, lastModified);
+            if (bytes != null) {
+                response.getOutputStream().write(bytes, (int) start, (int) length);
+                return;
+            }
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long written = channel.transferTo(position, end + 1 - position, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+            }
+        }
+    }
+
+    public CacheDto.CacheStatsResponse stats() {
+        return CacheDto.CacheStatsResponse.of("image-bytes", hotFiles);
+    }
+
+    private byte[] cached(Path file, long size, long lastModified) throws IOException {
+        CachedFile cached = hotFiles.getIfPresent(file);
+        if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+            return cached.bytes();
+        }
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException ex) {
+            throw new ResourceNotFoundException("Image not found: " + file.getFileName());
+        }
+        if (bytes.length != size) {
+            // Replaced between the stat and the read; the caller streams it instead
+            return null;
+        }
+        hotFiles.put(file, new CachedFile(bytes, size, lastModified));
+        return bytes;
+    }
+
+    private String etagOf(Path file, long size, long lastModified) {
+        String name = file.getFileName().toString();
+        if (ImageLocator.isBlobName(name)) {
+            return "\"" + name.substring(0, name.indexOf('.')) + "\"";
+        }
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    // A stale If-Range validator means the client's partial copy is outdated, so it gets the whole file
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    // A malformed Range header is ignored rather than rejected
+    private List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException ex) {
+            return List.of();
+        }
+    }
+}
@@ -1,24 +1,44 @@
 package com.zerox.csm.service;
 
 import com.zerox.csm.exception.FileStorageException;
+import com.zerox.csm.repository.ImageBlobRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
 
 @Service
 public class ImageStorageService {
 
     private final Path fileStorageLocation;
+    private final ImageDerivativeService imageDerivativeService;
+    private final BlobStore blobStore;
+    private final ImageBlobRepository imageBlobRepository;
 
-    public ImageStorageService(@Value("${app.upload.dir:uploads}") String uploadDir) {
+    public ImageStorageService(
+            @Value("${app.upload.dir:uploads}") String uploadDir,
+            ImageDerivativeService imageDerivativeService,
+            BlobStore blobStore,
+            ImageBlobRepository imageBlobRepository
+    ) {
+        this.imageDerivativeService = imageDerivativeService;
+        this.blobStore = blobStore;
+        this.imageBlobRepository = imageBlobRepository;
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
         try {
             Files.createDirectories(this.fileStorageLocation);
@@ -28,6 +48,7 @@ public class ImageStorageService {
         }
     }
 
+    @Transactional
     public String storeImage(MultipartFile file) {
         try {
             if (file == null || file.isEmpty()) {
@@ -50,18 +71,27 @@ public class ImageStorageService {
                 throw new FileStorageException("Invalid file path sequence in filename: " + originalFilename);
             }
 
-            // Generate unique filename with original extension
-            String extension = "";
-            if (originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            // Named by the SHA-256 of the content, so re-uploading the same photo reuses the stored blob.
+            // The extension comes from the validated content type rather than the client's file name.
+            String extension = extensionFor(contentType);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Path upload = Files.createTempFile(this.fileStorageLocation, "upload-", extension);
+            String newFileName;
+            try {
+                try (InputStream input = new DigestInputStream(file.getInputStream(), digest)) {
+                    Files.copy(input, upload, StandardCopyOption.REPLACE_EXISTING);
+                }
+                newFileName = HexFormat.of().formatHex(digest.digest()) + extension;
+                System.out.println("New filename: " + newFileName);
+
+                imageBlobRepository.acquire(newFileName, contentType, Files.size(upload), LocalDateTime.now());
+                blobStore.put(newFileName, upload);
+            } finally {
+                Files.deleteIfExists(upload);
             }
-            String newFileName = UUID.randomUUID().toString() + extension;
-            System.out.println("New filename: " + newFileName);
 
-            // Save file
-            Path targetLocation = this.fileStorageLocation.resolve(newFileName);
-            System.out.println("Saving file to: " + targetLocation);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            // Thumbnails and responsive sizes are rendered off the request thread
+            imageDerivativeService.renderAllAsync(newFileName);
 
             // Return URL path with the correct format
             String imageUrl = "/api/images/" + newFileName;
@@ -70,9 +100,12 @@ public class ImageStorageService {
         } catch (IOException ex) {
             ex.printStackTrace();
             throw new FileStorageException("Could not store file", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
         }
     }
 
+    @Transactional
     public void deleteImage(String imageUrl) {
         System.out.println("Attempting to delete image: " + imageUrl);
         
@@ -91,10 +124,17 @@ public class ImageStorageService {
                 System.out.println("Using input as filename directly: " + fileName);
             }
             
+            if (ImageLocator.isBlobName(fileName)) {
+                releaseBlob(fileName);
+                return;
+            }
+
+            // Images stored before the blob store are not shared and are deleted directly
             try {
                 Path targetLocation = this.fileStorageLocation.resolve(fileName);
                 System.out.println("Attempting to delete file at: " + targetLocation);
                 boolean deleted = Files.deleteIfExists(targetLocation);
+                imageDerivativeService.deleteDerivatives(fileName);
                 System.out.println("File deletion result: " + (deleted ? "Success" : "File not found"));
             } catch (IOException ex) {
                 System.err.println("Error deleting file: " + ex.getMessage());
@@ -106,6 +146,41 @@ public class ImageStorageService {
         }
     }
 
+    // Drops one reference; the blob and its derivatives go once nothing references it.
+    // Files are removed after commit, and only if no upload of the same content re-created the row meanwhile.
+    private void releaseBlob(String key) {
+        imageBlobRepository.release(key);
+        if (imageBlobRepository.deleteIfUnreferenced(key) == 0) {
+            System.out.println("Blob " + key + " is still referenced");
+            return;
+        }
+        Runnable deleteFiles = () -> {
+            if (!imageBlobRepository.existsById(key)) {
+                blobStore.delete(key);
+                imageDerivativeService.deleteDerivatives(key);
+                System.out.println("Deleted unreferenced blob " + key);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteFiles.run();
+                }
+            });
+        } else {
+            deleteFiles.run();
+        }
+    }
+
+    private String extensionFor(String contentType) {
+        return switch (contentType) {
+            case "image/png" -> ".png";
+            case "image/webp" -> ".webp";
+            default -> ".jpg";
+        };
+    }
+
     private boolean isValidImageType(String contentType) {
         return contentType.equals("image/jpeg") ||
                contentType.equals("image/png") ||
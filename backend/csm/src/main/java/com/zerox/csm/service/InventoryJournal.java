@@ -0,0 +1,278 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.model.InventoryLog;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.model.User;
+import com.zerox.csm.model.id.UuidBytes;
+import com.zerox.csm.model.id.UuidV7;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Write path for inventory_logs. Entries are written as multi-row INSERTs with time-ordered
+// UUIDv7 keys instead of one JPA save per stock change.
+// ASYNC (default): entries of a committed transaction go into a bounded ring buffer and a
+// background drain writes them in batches. Nothing is logged for a rolled-back change, but
+// entries still in the buffer are lost if the process dies.
+// TRANSACTIONAL: entries are written in one batch just before the stock change commits, so the
+// log and the stock always commit together. ASYNC falls back to this when the buffer is full.
+@Component
+public class InventoryJournal {
+
+    public enum Mode {
+        ASYNC, TRANSACTIONAL
+    }
+
+    record Entry(
+            UUID logId,
+            UUID productId,
+            int oldQuantity,
+            int newQuantity,
+            InventoryLog.InventoryChangeType changeType,
+            UUID changedBy,
+            LocalDateTime timestamp
+    ) {
+    }
+
+    // Entries recorded in the current transaction, bound as a transaction resource
+    private static final class TransactionEntries {
+        private final List<Entry> beforeCommit = new ArrayList<>();
+        private final List<Entry> afterCommit = new ArrayList<>();
+    }
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO inventory_logs (log_id, product_id, old_quantity, new_quantity, change_type, changed_by, timestamp) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final TaskExecutor inventoryJournalExecutor;
+    private final Mode mode;
+    private final int batchSize;
+    // ArrayBlockingQueue is a fixed-size ring buffer; offer fails instead of blocking when it is full
+    private final BlockingQueue<Entry> buffer;
+    // Buffered entries per product, so a product is not deleted while its log rows are in flight
+    private final Map<UUID, AtomicInteger> pendingByProduct = new ConcurrentHashMap<>();
+    private final AtomicBoolean drainRequested = new AtomicBoolean(false);
+
+    public InventoryJournal(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("inventoryJournalExecutor") TaskExecutor inventoryJournalExecutor,
+            @Value("${app.inventory.journal.mode:ASYNC}") Mode mode,
+            @Value("${app.inventory.journal.buffer-size:8192}") int bufferSize,
+            @Value("${app.inventory.journal.batch-size:500}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.inventoryJournalExecutor = inventoryJournalExecutor;
+        this.mode = mode;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+    }
+
+    public void record(
+            Product product,
+            int oldQuantity,
+            int newQuantity,
+            User changedBy,
+            InventoryLog.InventoryChangeType changeType
+    ) {
+        record(product.getProductId(), oldQuantity, newQuantity, changedBy != null ? changedBy.getUserId() : null, changeType);
+    }
+
+    // For writers that work on ids rather than loaded entities, such as the bulk import
+    public void record(
+            UUID productId,
+            int oldQuantity,
+            int newQuantity,
+            UUID changedBy,
+            InventoryLog.InventoryChangeType changeType
+    ) {
+        Entry entry = new Entry(
+                UuidV7.next(),
+                productId,
+                oldQuantity,
+                newQuantity,
+                changeType,
+                changedBy,
+                LocalDateTime.now()
+        );
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(List.of(entry));
+            return;
+        }
+        TransactionEntries entries = transactionEntries();
+        if (mode == Mode.ASYNC && buffer.remainingCapacity() > entries.afterCommit.size()) {
+            entries.afterCommit.add(entry);
+        } else {
+            entries.beforeCommit.add(entry);
+        }
+    }
+
+    public boolean hasPending(UUID productId) {
+        AtomicInteger pending = pendingByProduct.get(productId);
+        return pending != null && pending.get() > 0;
+    }
+
+    // Safety net for drains whose after-commit nudge was coalesced away
+    @Scheduled(fixedDelayString = "${app.inventory.journal.flush-interval:PT1S}")
+    public void flush() {
+        drain();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drain();
+    }
+
+    private TransactionEntries transactionEntries() {
+        TransactionEntries entries = (TransactionEntries) TransactionSynchronizationManager.getResource(this);
+        if (entries != null) {
+            return entries;
+        }
+        TransactionEntries created = new TransactionEntries();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!created.beforeCommit.isEmpty()) {
+                    // The products and users the rows point at may still be pending inserts
+                    entityManager.flush();
+                    write(created.beforeCommit);
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                enqueue(created.afterCommit);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(InventoryJournal.this);
+            }
+        });
+        return created;
+    }
+
+    private void enqueue(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Entry> overflow = new ArrayList<>();
+        for (Entry entry : entries) {
+            pendingByProduct.computeIfAbsent(entry.productId(), key -> new AtomicInteger()).incrementAndGet();
+            if (!buffer.offer(entry)) {
+                overflow.add(entry);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            // Filled up since the entries were recorded; write them now in a transaction of their own
+            requiresNew.executeWithoutResult(status -> writeAndRelease(overflow));
+        }
+        requestDrain();
+    }
+
+    private void requestDrain() {
+        if (drainRequested.compareAndSet(false, true)) {
+            inventoryJournalExecutor.execute(() -> {
+                drainRequested.set(false);
+                drain();
+            });
+        }
+    }
+
+    private synchronized void drain() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            writeAndRelease(batch);
+            batch.clear();
+        }
+    }
+
+    // A batch that fails (typically a product deleted meanwhile) is retried row by row,
+    // so one bad row does not take the rest of the batch with it
+    private void writeAndRelease(List<Entry> batch) {
+        try {
+            write(batch);
+        } catch (DataAccessException ex) {
+            System.out.println("Inventory log batch of " + batch.size() + " failed, writing rows one by one: " + ex.getMessage());
+            for (Entry entry : batch) {
+                try {
+                    write(List.of(entry));
+                } catch (DataAccessException rowEx) {
+                    System.out.println("Dropping inventory log " + entry + ": " + rowEx.getMessage());
+                }
+            }
+        } finally {
+            for (Entry entry : batch) {
+                AtomicInteger pending = pendingByProduct.get(entry.productId());
+                if (pending != null && pending.decrementAndGet() <= 0) {
+                    pendingByProduct.remove(entry.productId(), pending);
+                }
+            }
+        }
+    }
+
+    private void write(List<Entry> entries) {
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Entry> chunk = entries.subList(from, Math.min(entries.size(), from + batchSize));
+            String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), ROW));
+            jdbcTemplate.update(sql, statement -> {
+                int index = 1;
+                for (Entry entry : chunk) {
+                    index = bind(statement, index, entry);
+                }
+            });
+        }
+    }
+
+    private int bind(PreparedStatement statement, int index, Entry entry) throws SQLException {
+        statement.setBytes(index++, UuidBytes.toBytes(entry.logId()));
+        statement.setBytes(index++, UuidBytes.toBytes(entry.productId()));
+        statement.setInt(index++, entry.oldQuantity());
+        statement.setInt(index++, entry.newQuantity());
+        statement.setString(index++, entry.changeType().name());
+        if (entry.changedBy() != null) {
+            statement.setBytes(index++, UuidBytes.toBytes(entry.changedBy()));
+        } else {
+            statement.setNull(index++, Types.BINARY);
+        }
+        statement.setTimestamp(index++, Timestamp.valueOf(entry.timestamp()));
+        return index;
+    }
+}
@@ -0,0 +1,81 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.exception.FileStorageException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+// Blobs on the local filesystem, fanned out by the first two bytes of the key
+// (blobs/ab/cd/abcd...) so no directory grows past a few thousand entries
+@Service
+@ConditionalOnProperty(name = "app.blob-store.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]+)?");
+
+    private final Path root;
+
+    public LocalBlobStore(@Value("${app.blob-store.local.root:${app.upload.dir:uploads}/blobs}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the blob store directory.", ex);
+        }
+    }
+
+    @Override
+    public void put(String key, Path source) {
+        Path target = localPath(key);
+        if (Files.isRegularFile(target)) {
+            return;
+        }
+        // Copied next to the target and moved, so a reader never sees a partial blob
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), "put-", ".tmp");
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store blob " + key, ex);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Best effort; temp files are never served
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(localPath(key));
+    }
+
+    @Override
+    public Path localPath(String key) {
+        if (!KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(localPath(key));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not delete blob " + key, ex);
+        }
+    }
+}
@@ -0,0 +1,628 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.dto.OlapDto;
+import com.zerox.csm.event.OrderChangedEvent;
+import com.zerox.csm.model.LoyaltyTier;
+import com.zerox.csm.repository.OrderRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+// Columnar in-memory copy of the orders table for ad-hoc admin reports.
+// Each order is one row spread over primitive arrays: strings are dictionary codes, money is cents
+// and dates are epoch days, so a scan reads a few contiguous arrays and allocates nothing per row.
+// Rows live in fixed-size chunks that are copied on write, so a query always sees one consistent
+// snapshot while changed orders are applied in the background. Scans are split over all cores.
+@Component
+public class OrderCube {
+
+    public enum Dimension {
+        STATUS, PAYMENT_METHOD, COUPON, CITY, LOYALTY_TIER, MONTH
+    }
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int SPLIT_ROWS = 32_768;
+    private static final int REFRESH_BATCH_SIZE = 1000;
+    private static final int MAX_GROUP_BY = 3;
+    // Group keys pack up to three dimension codes into one long
+    private static final int CODE_BITS = 21;
+    private static final long CODE_MASK = (1L << CODE_BITS) - 1;
+    private static final int DIMENSIONS = Dimension.values().length;
+    // Per group: orders, units, gross, discount, net (money in cents)
+    private static final int MEASURES = 5;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<UUID> changedOrders = ConcurrentHashMap.newKeySet();
+
+    private volatile Snapshot snapshot;
+    // Writer side only, guarded by this
+    private RowIndex rowIndex;
+
+    public OrderCube(OrderRepository orderRepository, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        changedOrders.add(event.orderId());
+    }
+
+    // Applies the orders changed since the last run. The first tick fires at startup and builds the
+    // cube; until one succeeds queries are turned away rather than building it on a request thread.
+    @Scheduled(fixedDelayString = "${app.olap.refresh-interval:PT30S}")
+    public synchronized void refresh() {
+        if (snapshot == null) {
+            rebuild();
+            return;
+        }
+        if (changedOrders.isEmpty()) {
+            return;
+        }
+
+        List<UUID> ids = new ArrayList<>(changedOrders);
+        changedOrders.removeAll(ids);
+        try {
+            applyChanges(ids);
+        } catch (RuntimeException ex) {
+            changedOrders.addAll(ids);
+            throw ex;
+        }
+    }
+
+    // Full reload. Also picks up what no event announces: bulk order deletes and loyalty tier moves.
+    @Scheduled(fixedDelayString = "${app.olap.rebuild-interval:PT6H}", initialDelayString = "${app.olap.rebuild-interval:PT6H}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        // Cleared first: anything changing while the load runs is applied again by the next refresh
+        changedOrders.clear();
+
+        Dictionary[] dictionaries = newDictionaries();
+        RowIndex index = new RowIndex();
+        List<Chunk> chunks = new ArrayList<>();
+        int[] rows = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<OlapDto.OrderFactRow> facts = orderRepository.streamOrderFacts()) {
+                facts.forEach(fact -> {
+                    int row = rows[0]++;
+                    if ((row & CHUNK_MASK) == 0) {
+                        chunks.add(new Chunk());
+                    }
+                    Chunk chunk = chunks.get(chunks.size() - 1);
+                    write(chunk, row & CHUNK_MASK, fact, dictionaries);
+                    chunk.size++;
+                    index.put(fact.orderId(), row);
+                });
+            }
+        });
+
+        rowIndex = index;
+        snapshot = new Snapshot(chunks.toArray(new Chunk[0]), rows[0], dictionaries, LocalDateTime.now());
+        System.out.println("Order cube built with " + rows[0] + " orders in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms");
+    }
+
+    public OlapDto.CubeStatsResponse stats() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return new OlapDto.CubeStatsResponse(false, 0, 0, changedOrders.size(), null);
+        }
+        return new OlapDto.CubeStatsResponse(
+                true, current.rows(), current.chunks().length, changedOrders.size(), current.builtAt());
+    }
+
+    // Filters are ANDed across dimensions and ORed within one; groups come back by net amount, largest first.
+    // Empty while the cube has not been built yet.
+    public Optional<OlapDto.CubeQueryResponse> query(OlapDto.CubeQueryRequest request) {
+        List<Dimension> groupBy = new ArrayList<>();
+        if (request.groupBy() != null) {
+            for (String name : request.groupBy()) {
+                Dimension dimension = parseDimension(name);
+                if (!groupBy.contains(dimension)) {
+                    groupBy.add(dimension);
+                }
+            }
+        }
+        if (groupBy.size() > MAX_GROUP_BY) {
+            throw new IllegalArgumentException("At most " + MAX_GROUP_BY + " group by dimensions are supported");
+        }
+        if (request.from() != null && request.to() != null && request.from().isAfter(request.to())) {
+            throw new IllegalArgumentException("The from date must not be after the to date");
+        }
+        int limit = request.limit() != null ? request.limit() : 1000;
+        if (limit < 1 || limit > 10_000) {
+            throw new IllegalArgumentException("Limit must be between 1 and 10000");
+        }
+
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        int[] filterDimensions = new int[0];
+        boolean[][] filterMasks = new boolean[0][];
+        if (request.filters() != null) {
+            filterDimensions = new int[request.filters().size()];
+            filterMasks = new boolean[request.filters().size()][];
+            int i = 0;
+            for (Map.Entry<String, List<String>> filter : request.filters().entrySet()) {
+                Dimension dimension = parseDimension(filter.getKey());
+                filterDimensions[i] = dimension.ordinal();
+                filterMasks[i] = mask(current, dimension, filter.getValue() != null ? filter.getValue() : List.of());
+                i++;
+            }
+        }
+        int[] groupDimensions = groupBy.stream().mapToInt(Dimension::ordinal).toArray();
+        boolean dateFilter = request.from() != null || request.to() != null;
+        int fromDay = request.from() != null ? (int) request.from().toEpochDay() : NO_DAY + 1;
+        int toDay = request.to() != null ? (int) request.to().toEpochDay() : Integer.MAX_VALUE;
+
+        long started = System.nanoTime();
+        GroupTable table = ForkJoinPool.commonPool().invoke(new ScanTask(
+                current, 0, current.rows(), filterDimensions, filterMasks, groupDimensions, dateFilter, fromDay, toDay));
+        double tookMillis = (System.nanoTime() - started) / 1_000_000.0;
+
+        List<OlapDto.CubeGroup> groups = new ArrayList<>(table.size);
+        long matched = 0;
+        for (int slot = 0; slot < table.keys.length; slot++) {
+            if (!table.used[slot]) {
+                continue;
+            }
+            int base = slot * MEASURES;
+            matched += table.sums[base];
+            Map<String, String> key = new LinkedHashMap<>();
+            for (int g = 0; g < groupDimensions.length; g++) {
+                int code = (int) ((table.keys[slot] >>> (g * CODE_BITS)) & CODE_MASK);
+                key.put(groupBy.get(g).name().toLowerCase(), decode(current, groupBy.get(g), code));
+            }
+            groups.add(new OlapDto.CubeGroup(
+                    key,
+                    table.sums[base],
+                    table.sums[base + 1],
+                    BigDecimal.valueOf(table.sums[base + 2], 2),
+                    BigDecimal.valueOf(table.sums[base + 3], 2),
+                    BigDecimal.valueOf(table.sums[base + 4], 2)
+            ));
+        }
+        groups.sort(Comparator.comparing(OlapDto.CubeGroup::netAmount).reversed());
+        if (groups.size() > limit) {
+            groups = new ArrayList<>(groups.subList(0, limit));
+        }
+
+        return Optional.of(new OlapDto.CubeQueryResponse(groups, matched, current.rows(), tookMillis, current.builtAt()));
+    }
+
+    private void applyChanges(List<UUID> ids) {
+        Snapshot current = snapshot;
+        List<Chunk> chunks = new ArrayList<>(Arrays.asList(current.chunks()));
+        Set<Integer> copied = new HashSet<>();
+        Map<UUID, Integer> appended = new HashMap<>();
+        Set<UUID> found = new HashSet<>();
+        int rows = current.rows();
+
+        for (int from = 0; from < ids.size(); from += REFRESH_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + REFRESH_BATCH_SIZE, ids.size()));
+            List<OlapDto.OrderFactRow> facts = transactionTemplate.execute(status -> orderRepository.findOrderFacts(batch));
+            for (OlapDto.OrderFactRow fact : facts) {
+                found.add(fact.orderId());
+                int row = rowIndex.get(fact.orderId());
+                if (row < 0) {
+                    row = rows++;
+                    appended.put(fact.orderId(), row);
+                    if ((row & CHUNK_MASK) == 0) {
+                        chunks.add(new Chunk());
+                        copied.add(chunks.size() - 1);
+                    }
+                }
+                Chunk chunk = writable(chunks, copied, row >>> CHUNK_BITS);
+                write(chunk, row & CHUNK_MASK, fact, current.dictionaries());
+                chunk.size = Math.max(chunk.size, (row & CHUNK_MASK) + 1);
+            }
+        }
+
+        // Orders that are gone drop out of every query
+        for (UUID id : ids) {
+            int row = rowIndex.get(id);
+            if (row >= 0 && !found.contains(id)) {
+                writable(chunks, copied, row >>> CHUNK_BITS).live[row & CHUNK_MASK] = false;
+            }
+        }
+
+        snapshot = new Snapshot(chunks.toArray(new Chunk[0]), rows, current.dictionaries(), LocalDateTime.now());
+        appended.forEach(rowIndex::put);
+    }
+
+    private Chunk writable(List<Chunk> chunks, Set<Integer> copied, int chunkIndex) {
+        if (copied.add(chunkIndex)) {
+            chunks.set(chunkIndex, chunks.get(chunkIndex).copy());
+        }
+        return chunks.get(chunkIndex);
+    }
+
+    private void write(Chunk chunk, int offset, OlapDto.OrderFactRow fact, Dictionary[] dictionaries) {
+        LocalDate day = fact.createdAt() != null ? fact.createdAt().toLocalDate() : null;
+        String tier = fact.loyaltyPoints() != null ? LoyaltyTier.fromPoints(fact.loyaltyPoints()).name() : null;
+
+        chunk.dims[Dimension.STATUS.ordinal()][offset] =
+                dictionaries[Dimension.STATUS.ordinal()].encode(fact.status() != null ? fact.status().name() : null);
+        chunk.dims[Dimension.PAYMENT_METHOD.ordinal()][offset] =
+                dictionaries[Dimension.PAYMENT_METHOD.ordinal()].encode(fact.paymentMethod());
+        chunk.dims[Dimension.COUPON.ordinal()][offset] =
+                dictionaries[Dimension.COUPON.ordinal()].encode(fact.couponCode());
+        chunk.dims[Dimension.CITY.ordinal()][offset] =
+                dictionaries[Dimension.CITY.ordinal()].encode(fact.city());
+        chunk.dims[Dimension.LOYALTY_TIER.ordinal()][offset] =
+                dictionaries[Dimension.LOYALTY_TIER.ordinal()].encode(tier);
+        chunk.dims[Dimension.MONTH.ordinal()][offset] = day != null ? monthCode(YearMonth.from(day)) : 0;
+        chunk.epochDay[offset] = day != null ? (int) day.toEpochDay() : NO_DAY;
+        chunk.units[offset] = fact.units() != null ? fact.units() : 0;
+        chunk.gross[offset] = cents(fact.totalAmount());
+        chunk.discount[offset] = cents(fact.discountAmount());
+        chunk.net[offset] = cents(fact.finalAmount());
+        chunk.live[offset] = true;
+    }
+
+    // mask[code] is true for the codes the filter accepts
+    private boolean[] mask(Snapshot current, Dimension dimension, List<String> values) {
+        List<Integer> codes = new ArrayList<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (dimension == Dimension.MONTH) {
+                try {
+                    codes.add(monthCode(YearMonth.parse(value.trim())));
+                } catch (DateTimeParseException ex) {
+                    throw new IllegalArgumentException("Invalid month, expected yyyy-MM: " + value);
+                }
+            } else {
+                String normalized = dimension == Dimension.STATUS || dimension == Dimension.LOYALTY_TIER
+                        ? value.trim().toUpperCase()
+                        : value;
+                int code = current.dictionaries()[dimension.ordinal()].codeOf(normalized);
+                if (code >= 0) {
+                    codes.add(code);
+                }
+            }
+        }
+        boolean[] mask = new boolean[codes.stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+        codes.forEach(code -> mask[code] = true);
+        return mask;
+    }
+
+    private String decode(Snapshot current, Dimension dimension, int code) {
+        if (dimension == Dimension.MONTH) {
+            return code == 0 ? null : YearMonth.of(1970 + (code - 1) / 12, (code - 1) % 12 + 1).toString();
+        }
+        return current.dictionaries()[dimension.ordinal()].decode(code);
+    }
+
+    private Dimension parseDimension(String name) {
+        try {
+            return Dimension.valueOf(name.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            throw new IllegalArgumentException("Unknown order cube dimension: " + name);
+        }
+    }
+
+    private Dictionary[] newDictionaries() {
+        Dictionary[] dictionaries = new Dictionary[DIMENSIONS];
+        for (Dimension dimension : Dimension.values()) {
+            if (dimension != Dimension.MONTH) {
+                dictionaries[dimension.ordinal()] = new Dictionary();
+            }
+        }
+        return dictionaries;
+    }
+
+    // Months since 1970-01, plus one so that 0 means no date
+    private static int monthCode(YearMonth month) {
+        return (month.getYear() - 1970) * 12 + month.getMonthValue();
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0;
+    }
+
+    private record Snapshot(Chunk[] chunks, int rows, Dictionary[] dictionaries, LocalDateTime builtAt) {
+    }
+
+    // Column arrays for up to CHUNK_SIZE rows. Never changed once part of a published snapshot.
+    private static final class Chunk {
+        private final int[][] dims;
+        private final int[] epochDay;
+        private final long[] units;
+        private final long[] gross;
+        private final long[] discount;
+        private final long[] net;
+        private final boolean[] live;
+        private int size;
+
+        private Chunk() {
+            dims = new int[DIMENSIONS][CHUNK_SIZE];
+            epochDay = new int[CHUNK_SIZE];
+            units = new long[CHUNK_SIZE];
+            gross = new long[CHUNK_SIZE];
+            discount = new long[CHUNK_SIZE];
+            net = new long[CHUNK_SIZE];
+            live = new boolean[CHUNK_SIZE];
+        }
+
+        private Chunk(Chunk source) {
+            dims = new int[DIMENSIONS][];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                dims[d] = source.dims[d].clone();
+            }
+            epochDay = source.epochDay.clone();
+            units = source.units.clone();
+            gross = source.gross.clone();
+            discount = source.discount.clone();
+            net = source.net.clone();
+            live = source.live.clone();
+            size = source.size;
+        }
+
+        private Chunk copy() {
+            return new Chunk(this);
+        }
+    }
+
+    // Append-only string to code mapping; code 0 stands for no value.
+    // Codes are written before the snapshot that uses them is published, so readers can decode without locking.
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private volatile String[] values = new String[16];
+        private int size = 1;
+
+        private synchronized int encode(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (size > CODE_MASK) {
+                throw new IllegalStateException("Too many distinct values for the order cube");
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = value;
+            values = current;
+            codes.put(value, size);
+            return size++;
+        }
+
+        private synchronized int codeOf(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        private String decode(int code) {
+            return values[code];
+        }
+    }
+
+    // Order id to row number, open addressing over primitive arrays
+    private static final class RowIndex {
+        private long[] mostSignificant = new long[1024];
+        private long[] leastSignificant = new long[1024];
+        private int[] rows = filled(1024);
+        private int size;
+
+        private int get(UUID id) {
+            int mask = rows.length - 1;
+            for (int slot = hash(id) & mask; rows[slot] >= 0; slot = (slot + 1) & mask) {
+                if (mostSignificant[slot] == id.getMostSignificantBits() && leastSignificant[slot] == id.getLeastSignificantBits()) {
+                    return rows[slot];
+                }
+            }
+            return -1;
+        }
+
+        private void put(UUID id, int row) {
+            if ((size + 1) * 2 > rows.length) {
+                grow();
+            }
+            int mask = rows.length - 1;
+            int slot = hash(id) & mask;
+            while (rows[slot] >= 0) {
+                if (mostSignificant[slot] == id.getMostSignificantBits() && leastSignificant[slot] == id.getLeastSignificantBits()) {
+                    rows[slot] = row;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            mostSignificant[slot] = id.getMostSignificantBits();
+            leastSignificant[slot] = id.getLeastSignificantBits();
+            rows[slot] = row;
+            size++;
+        }
+
+        private void grow() {
+            long[] oldMost = mostSignificant;
+            long[] oldLeast = leastSignificant;
+            int[] oldRows = rows;
+            mostSignificant = new long[oldRows.length * 2];
+            leastSignificant = new long[oldRows.length * 2];
+            rows = filled(oldRows.length * 2);
+            size = 0;
+            for (int slot = 0; slot < oldRows.length; slot++) {
+                if (oldRows[slot] >= 0) {
+                    put(new UUID(oldMost[slot], oldLeast[slot]), oldRows[slot]);
+                }
+            }
+        }
+
+        private static int hash(UUID id) {
+            long bits = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+            return (int) ((bits * 0x9E3779B97F4A7C15L) >>> 32);
+        }
+
+        private static int[] filled(int length) {
+            int[] rows = new int[length];
+            Arrays.fill(rows, -1);
+            return rows;
+        }
+    }
+
+    // Group key to running sums, open addressing so the scan loop does not box
+    private static final class GroupTable {
+        private long[] keys = new long[16];
+        private long[] sums = new long[16 * MEASURES];
+        private boolean[] used = new boolean[16];
+        private int size;
+
+        private void add(long key, long orders, long units, long gross, long discount, long net) {
+            int base = slot(key) * MEASURES;
+            sums[base] += orders;
+            sums[base + 1] += units;
+            sums[base + 2] += gross;
+            sums[base + 3] += discount;
+            sums[base + 4] += net;
+        }
+
+        private void mergeFrom(GroupTable other) {
+            for (int slot = 0; slot < other.keys.length; slot++) {
+                if (other.used[slot]) {
+                    int base = slot * MEASURES;
+                    add(other.keys[slot], other.sums[base], other.sums[base + 1], other.sums[base + 2],
+                            other.sums[base + 3], other.sums[base + 4]);
+                }
+            }
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                return slot(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldSums = sums;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            sums = new long[oldKeys.length * 2 * MEASURES];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldUsed[slot]) {
+                    int base = slot * MEASURES;
+                    add(oldKeys[slot], oldSums[base], oldSums[base + 1], oldSums[base + 2], oldSums[base + 3], oldSums[base + 4]);
+                }
+            }
+        }
+    }
+
+    // Splits the row range in halves until it is small enough to scan on one worker
+    private static final class ScanTask extends RecursiveTask<GroupTable> {
+        private final Snapshot snapshot;
+        private final int from;
+        private final int to;
+        private final int[] filterDimensions;
+        private final boolean[][] filterMasks;
+        private final int[] groupDimensions;
+        private final boolean dateFilter;
+        private final int fromDay;
+        private final int toDay;
+
+        private ScanTask(Snapshot snapshot, int from, int to, int[] filterDimensions, boolean[][] filterMasks,
+                         int[] groupDimensions, boolean dateFilter, int fromDay, int toDay) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+            this.filterDimensions = filterDimensions;
+            this.filterMasks = filterMasks;
+            this.groupDimensions = groupDimensions;
+            this.dateFilter = dateFilter;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        @Override
+        protected GroupTable compute() {
+            if (to - from <= SPLIT_ROWS) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(snapshot, from, middle, filterDimensions, filterMasks,
+                    groupDimensions, dateFilter, fromDay, toDay);
+            ScanTask right = new ScanTask(snapshot, middle, to, filterDimensions, filterMasks,
+                    groupDimensions, dateFilter, fromDay, toDay);
+            left.fork();
+            GroupTable result = right.compute();
+            result.mergeFrom(left.join());
+            return result;
+        }
+
+        private GroupTable scan() {
+            GroupTable table = new GroupTable();
+            int row = from;
+            while (row < to) {
+                Chunk chunk = snapshot.chunks()[row >>> CHUNK_BITS];
+                int start = row & CHUNK_MASK;
+                int end = start + Math.min(to - row, CHUNK_SIZE - start);
+                for (int i = start; i < end; i++) {
+                    if (chunk.live[i] && inRange(chunk.epochDay[i]) && matches(chunk, i)) {
+                        long key = 0;
+                        for (int g = 0; g < groupDimensions.length; g++) {
+                            key |= (long) chunk.dims[groupDimensions[g]][i] << (g * CODE_BITS);
+                        }
+                        table.add(key, 1, chunk.units[i], chunk.gross[i], chunk.discount[i], chunk.net[i]);
+                    }
+                }
+                row += end - start;
+            }
+            return table;
+        }
+
+        private boolean inRange(int day) {
+            return !dateFilter || (day != NO_DAY && day >= fromDay && day <= toDay);
+        }
+
+        private boolean matches(Chunk chunk, int i) {
+            for (int f = 0; f < filterDimensions.length; f++) {
+                int code = chunk.dims[filterDimensions[f]][i];
+                boolean[] mask = filterMasks[f];
+                if (code >= mask.length || !mask[code]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.zerox.csm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox.csm.dto.OrderDto.OrderItemResponse;
+import com.zerox.csm.dto.OrderDto.OrderReportRow;
+import com.zerox.csm.dto.OrderDto.OrderResponse;
+import com.zerox.csm.model.OrderStatus;
+import com.zerox.csm.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Writes the order report straight from a database cursor to the response.
+// Only the order being written is held in memory, however many rows the report has.
+@Service
+@RequiredArgsConstructor
+public class OrderReportService {
+
+    private static final int FLUSH_EVERY = 500;
+    private static final String CSV_HEADER = "order_id,created_at,status,customer_email,payment_method,payment_id,"
+            + "coupon_code,total_amount,discount_amount,final_amount,shipping_address_id,"
+            + "product_name,quantity,price_at_purchase,subtotal";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return MediaType.parseMediaType(mediaType);
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    // The cursor needs an open transaction for as long as rows are being written
+    @Transactional(readOnly = true)
+    public void writeOrders(OrderStatus status, LocalDateTime start, LocalDateTime end, Format format, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<OrderReportRow> rows = orderRepository.streamReportRows(status, start, end)) {
+            if (format == Format.CSV) {
+                writeCsv(rows.iterator(), writer);
+            } else {
+                writeNdjson(rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    // One JSON object per order, with the same shape as the /api/report/orders entries
+    private void writeNdjson(Iterator<OrderReportRow> rows, Writer writer) throws IOException {
+        OrderReportRow current = null;
+        List<OrderItemResponse> items = new ArrayList<>();
+        int written = 0;
+
+        while (rows.hasNext()) {
+            OrderReportRow row = rows.next();
+            if (current != null && !current.orderId().equals(row.orderId())) {
+                writeOrderLine(current, items, writer);
+                items = new ArrayList<>();
+                if (++written % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            current = row;
+            if (row.quantity() != null) {
+                items.add(new OrderItemResponse(
+                        row.productName(),
+                        row.quantity(),
+                        row.priceAtPurchase(),
+                        subtotal(row)
+                ));
+            }
+        }
+        if (current != null) {
+            writeOrderLine(current, items, writer);
+        }
+    }
+
+    private void writeOrderLine(OrderReportRow order, List<OrderItemResponse> items, Writer writer) throws IOException {
+        OrderResponse response = new OrderResponse(
+                order.orderId(),
+                order.customerEmail(),
+                items,
+                order.totalAmount(),
+                order.discountAmount(),
+                order.finalAmount(),
+                order.couponCode(),
+                order.status(),
+                order.paymentMethod(),
+                order.paymentId(),
+                order.shippingAddressId(),
+                order.createdAt()
+        );
+        writer.write(objectMapper.writeValueAsString(response));
+        writer.write('\n');
+    }
+
+    // One line per order item; orders without items get a single line with empty item columns
+    private void writeCsv(Iterator<OrderReportRow> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        int written = 0;
+        while (rows.hasNext()) {
+            OrderReportRow row = rows.next();
+            writer.write(String.join(",",
+                    csv(row.orderId()),
+                    csv(row.createdAt()),
+                    csv(row.status()),
+                    csv(row.customerEmail()),
+                    csv(row.paymentMethod()),
+                    csv(row.paymentId()),
+                    csv(row.couponCode()),
+                    csv(row.totalAmount()),
+                    csv(row.discountAmount()),
+                    csv(row.finalAmount()),
+                    csv(row.shippingAddressId()),
+                    csv(row.productName()),
+                    csv(row.quantity()),
+                    csv(row.priceAtPurchase()),
+                    csv(row.quantity() != null ? subtotal(row) : null)
+            ));
+            writer.write('\n');
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+    }
+
+    private BigDecimal subtotal(OrderReportRow row) {
+        return row.priceAtPurchase() != null
+                ? row.priceAtPurchase().multiply(BigDecimal.valueOf(row.quantity()))
+                : BigDecimal.ZERO;
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
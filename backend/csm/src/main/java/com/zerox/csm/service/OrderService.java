@@ -1,11 +1,17 @@
 package com.zerox.csm.service;
 
 import com.zerox.csm.dto.CouponDto;
+import com.zerox.csm.dto.CursorPage;
 import com.zerox.csm.dto.OrderDto.OrderItemRequest;
 import com.zerox.csm.dto.OrderDto.OrderRequest;
 import com.zerox.csm.dto.OrderDto.OrderResponse;
 import com.zerox.csm.dto.OrderDto.OrderItemResponse;
 import com.zerox.csm.dto.ProductDiscountDto;
+import com.zerox.csm.event.CouponRedeemedEvent;
+import com.zerox.csm.event.OrderCancelledEvent;
+import com.zerox.csm.event.OrderChangedEvent;
+import com.zerox.csm.event.OrderDeliveredEvent;
+import com.zerox.csm.event.OrderPlacedEvent;
 import com.zerox.csm.exception.InsufficientStockException;
 import com.zerox.csm.exception.ResourceNotFoundException;
 import com.zerox.csm.exception.ValidationException;
@@ -17,16 +23,27 @@ import com.zerox.csm.repository.UserRepository;
 import com.zerox.csm.repository.CouponRepository;
 import com.zerox.csm.service.ProductDiscountService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 // OrderService.java
@@ -42,6 +59,9 @@ public class OrderService {
     private final CouponService couponService;
     private final ProductDiscountService productDiscountService;
     private final EmailService emailService;
+    private final StockReservationService stockReservationService;
+    private final DomainEventOutbox domainEventOutbox;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public OrderResponse createOrder(OrderRequest request) {
@@ -105,6 +125,9 @@ public class OrderService {
 
             discountAmount = validationResponse.discountAmount();
             finalAmount = total.subtract(discountAmount);
+
+            // The check above only reads the count; this takes the use, or fails the checkout if it is gone
+            couponService.reserveUse(coupon);
         }
 
         // 6. Create order
@@ -127,56 +150,90 @@ public class OrderService {
 
         Order savedOrder = orderRepository.save(order);
 
-        // 7. Send order confirmation email
-        String orderDetails = "Items Ordered:\n";
-        for (OrderItem item : savedOrder.getItems()) {
-            orderDetails += "- " + item.getProduct().getName() + " x " + item.getQuantity() + "\n";
-        }
-        orderDetails += "\nTotal Amount: " + savedOrder.getTotalAmount() + "\n";
-        if (savedOrder.getDiscountAmount() != null) {
-            orderDetails += "Discount: " + savedOrder.getDiscountAmount() + "\n";
-        }
-        orderDetails += "Final Amount: " + savedOrder.getFinalAmount();
-
-        emailService.sendOrderConfirmationEmail(user.getEmail(), savedOrder.getOrderId().toString(), orderDetails);
+        // Take the units off stock atomically; fails the checkout if another order got there first
+        stockReservationService.reserve(savedOrder);
 
-        // 8. Record coupon usage if used
+        // 7. Confirmation email and the coupon usage record are follow-up work, handled by event subscribers
+        domainEventOutbox.append(new OrderPlacedEvent(savedOrder.getOrderId(), user.getUserId()));
+        eventPublisher.publishEvent(new OrderChangedEvent(savedOrder.getOrderId()));
         if (coupon != null) {
-            couponService.recordCouponUsage(coupon, user, savedOrder, discountAmount);
+            domainEventOutbox.append(new CouponRedeemedEvent(
+                    coupon.getCouponId(), user.getUserId(), savedOrder.getOrderId(), discountAmount));
         }
 
         return mapToOrderResponse(savedOrder);
     }
 
+    // Queues the order confirmation email (sent by EmailDispatcher)
+    @EventListener
+    @Transactional
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        Order order = orderRepository.findById(event.orderId()).orElse(null);
+        if (order == null) {
+            return;
+        }
+
+        StringBuilder orderDetails = new StringBuilder("Items Ordered:\n");
+        for (OrderItem item : order.getItems()) {
+            orderDetails.append("- ").append(item.getProduct().getName())
+                    .append(" x ").append(item.getQuantity()).append('\n');
+        }
+        orderDetails.append("\nTotal Amount: ").append(order.getTotalAmount()).append('\n');
+        if (order.getDiscountAmount() != null) {
+            orderDetails.append("Discount: ").append(order.getDiscountAmount()).append('\n');
+        }
+        orderDetails.append("Final Amount: ").append(order.getFinalAmount());
+
+        emailService.sendOrderConfirmationEmail(order.getUser().getEmail(), order.getOrderId().toString(), orderDetails.toString());
+    }
+
+    // Loads every product and active discount of the order with one IN query each,
+    // so checkout costs the same number of round trips for 1 or 30 line items
     private List<OrderItem> validateAndCreateItems(List<OrderItemRequest> itemsRequest) {
-        return itemsRequest.stream().map(item -> {
-            Product product = productRepository.findById(item.productId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+        Set<UUID> productIds = itemsRequest.stream()
+                .map(OrderItemRequest::productId)
+                .collect(Collectors.toSet());
+
+        Map<UUID, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        if (products.size() != productIds.size()) {
+            throw new ResourceNotFoundException("Product not found");
+        }
 
-            if(product.getStockQuantity() < item.quantity()) {
+        Map<UUID, ProductDiscountDto.ActiveDiscountResponse> activeDiscounts =
+                productDiscountService.getActiveDiscountsForProducts(productIds);
+
+        // Early rejection only; the authoritative check is the conditional decrement in StockReservationService
+        Map<UUID, Integer> requested = new HashMap<>();
+        itemsRequest.forEach(item -> requested.merge(item.productId(), item.quantity(), Integer::sum));
+        requested.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product.getStockQuantity() < quantity) {
                 throw new InsufficientStockException(
                         "Not enough stock for product: " + product.getName()
                 );
             }
+        });
+
+        List<OrderItem> items = itemsRequest.stream().map(item -> {
+            Product product = products.get(item.productId());
 
             // Check for active discounts
-            ProductDiscountDto.ActiveDiscountResponse activeDiscount = productDiscountService.getActiveDiscountForProduct(product.getProductId());
+            ProductDiscountDto.ActiveDiscountResponse activeDiscount = activeDiscounts.get(product.getProductId());
             BigDecimal discountedPrice = product.getPrice();
             
             if (activeDiscount != null) {
                 discountedPrice = activeDiscount.discountPrice();
             }
 
-            // Update stock
-            product.setStockQuantity(product.getStockQuantity() - item.quantity());
-            productRepository.save(product);
-
             return OrderItem.builder()
                     .product(product)
                     .quantity(item.quantity())
                     .priceAtPurchase(discountedPrice)
                     .build();
         }).collect(Collectors.toList());
+
+        return items;
     }
 
     private BigDecimal calculateTotal(List<OrderItem> items) {
@@ -237,13 +294,48 @@ public class OrderService {
                 .map(this::mapToOrderResponse);
     }
 
+    // Keyset (seek) pagination over all orders, newest first
+    public CursorPage<OrderResponse> seekAllOrders(OrderStatus status, String cursor, int size) {
+        Map<String, Function<String, ?>> keyParsers = new LinkedHashMap<>();
+        keyParsers.put("createdAt", LocalDateTime::parse);
+        keyParsers.put("orderId", UUID::fromString);
+        ScrollPosition position = SeekCursor.position(cursor, keyParsers);
+
+        Specification<Order> filter = (root, query, cb) ->
+                status != null ? cb.equal(root.get("status"), status) : cb.conjunction();
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt", "orderId");
+        Window<Order> window = orderRepository.findBy(filter,
+                query -> query.sortBy(sort).limit(size).scroll(position));
+
+        return new CursorPage<>(
+                window.getContent().stream().map(this::mapToOrderResponse).toList(),
+                window.size(),
+                window.hasNext(),
+                SeekCursor.next(window)
+        );
+    }
+
     @Transactional
     public OrderResponse updateOrderStatus(UUID orderId, OrderStatus status) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
-        return mapToOrderResponse(orderRepository.save(order));
+        Order savedOrder = orderRepository.save(order);
+
+        if (status == OrderStatus.CANCELLED && previousStatus != OrderStatus.CANCELLED) {
+            stockReservationService.release(savedOrder);
+            domainEventOutbox.append(new OrderCancelledEvent(orderId, savedOrder.getUser().getUserId()));
+        } else if (status != OrderStatus.PENDING && status != OrderStatus.CANCELLED) {
+            stockReservationService.commit(orderId);
+        }
+        if (status == OrderStatus.DELIVERED && previousStatus != OrderStatus.DELIVERED) {
+            domainEventOutbox.append(new OrderDeliveredEvent(orderId, savedOrder.getUser().getUserId()));
+        }
+        eventPublisher.publishEvent(new OrderChangedEvent(orderId));
+        return mapToOrderResponse(savedOrder);
     }
 
     @Transactional
@@ -259,11 +351,9 @@ public class OrderService {
         order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
 
-        // Optionally, restore inventory quantities
-        for (OrderItem item : order.getItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
-        }
+        // Restore inventory quantities held by the order
+        stockReservationService.release(order);
+        domainEventOutbox.append(new OrderCancelledEvent(orderId, order.getUser().getUserId()));
+        eventPublisher.publishEvent(new OrderChangedEvent(orderId));
     }
 }
\ No newline at end of file
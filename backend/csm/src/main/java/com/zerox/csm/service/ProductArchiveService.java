@@ -1,10 +1,12 @@
 package com.zerox.csm.service;
 
 import com.zerox.csm.dto.ProductDto;
+import com.zerox.csm.event.ProductChangedEvent;
 import com.zerox.csm.exception.ResourceNotFoundException;
 import com.zerox.csm.model.Product;
 import com.zerox.csm.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +18,7 @@ public class ProductArchiveService {
 
     private final ProductRepository productRepository;
     private final ProductService productService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ProductDto.ProductResponse archiveProduct(UUID productId) {
@@ -24,6 +27,7 @@ public class ProductArchiveService {
 
         product.setActive(false);
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
 
         return mapToProductResponse(savedProduct);
     }
@@ -35,6 +39,7 @@ public class ProductArchiveService {
 
         product.setActive(true);
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
 
         return mapToProductResponse(savedProduct);
     }
@@ -0,0 +1,86 @@
+package com.zerox.csm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerox.csm.dto.CacheDto;
+import com.zerox.csm.dto.ProductDto;
+import com.zerox.csm.event.CategoryChangedEvent;
+import com.zerox.csm.event.ProductChangedEvent;
+import com.zerox.csm.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Read-through cache for product detail and SKU lookups.
+// Entries are dropped by ProductChangedEvent once the write has committed; the TTL is only a safety net.
+@Component
+public class ProductCache {
+
+    private final Cache<UUID, ProductDto.ProductResponse> products;
+    private final Cache<String, UUID> skuIds;
+
+    public ProductCache(
+            @Value("${app.cache.products.max-size:10000}") long maxSize,
+            @Value("${app.cache.products.ttl:PT10M}") Duration ttl
+    ) {
+        // Caffeine evicts with W-TinyLFU, so a burst of one-off lookups does not flush the hot products
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.skuIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public ProductDto.ProductResponse get(UUID productId, Function<UUID, ProductDto.ProductResponse> loader) {
+        return products.get(productId, loader);
+    }
+
+    public ProductDto.ProductResponse getBySku(String sku, Function<String, ProductDto.ProductResponse> loader) {
+        UUID productId = skuIds.getIfPresent(sku);
+        if (productId != null) {
+            ProductDto.ProductResponse cached = products.getIfPresent(productId);
+            // The SKU may have been reassigned since the mapping was cached
+            if (cached != null && sku.equals(cached.sku())) {
+                return cached;
+            }
+            skuIds.invalidate(sku);
+        }
+
+        ProductDto.ProductResponse loaded = loader.apply(sku);
+        skuIds.put(sku, loaded.productId());
+        products.put(loaded.productId(), loaded);
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        products.invalidate(product.getProductId());
+        if (product.getSku() != null) {
+            skuIds.invalidate(product.getSku());
+        }
+    }
+
+    // Responses carry the category name
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        products.invalidateAll();
+    }
+
+    public List<CacheDto.CacheStatsResponse> stats() {
+        return List.of(
+                CacheDto.CacheStatsResponse.of("products", products),
+                CacheDto.CacheStatsResponse.of("product-skus", skuIds)
+        );
+    }
+}
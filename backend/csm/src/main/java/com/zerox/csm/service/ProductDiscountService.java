@@ -17,7 +17,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -166,6 +169,21 @@ public class ProductDiscountService {
                 .orElse(null);
     }
 
+    // Active discount per product in one query; products without a discount are absent from the map
+    public Map<UUID, ProductDiscountDto.ActiveDiscountResponse> getActiveDiscountsForProducts(Collection<UUID> productIds) {
+        Map<UUID, ProductDiscountDto.ActiveDiscountResponse> discounts = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return discounts;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // Ordered by price, so the first discount seen for a product is its lowest
+        for (ProductDiscount discount : discountRepository.findActiveDiscountsForProducts(productIds, now)) {
+            discounts.putIfAbsent(discount.getProduct().getProductId(), mapToActiveDiscountResponse(discount));
+        }
+        return discounts;
+    }
+
     private ProductDiscountDto.DiscountResponse mapToDiscountResponse(ProductDiscount discount) {
         return new ProductDiscountDto.DiscountResponse(
                 discount.getDiscountId(),
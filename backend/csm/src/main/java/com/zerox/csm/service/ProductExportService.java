@@ -0,0 +1,119 @@
+package com.zerox.csm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox.csm.dto.ProductDto.ProductTransferRow;
+import com.zerox.csm.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Writes the catalog in the same shape the bulk import reads, straight from a database cursor,
+// so an export can be edited and imported back.
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    // CSV columns, in ProductTransferRow order
+    static final List<String> COLUMNS = List.of(
+            "sku", "name", "description", "price", "category", "brand", "stock_quantity",
+            "low_stock_threshold", "warranty_period_months", "keywords", "active");
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return MediaType.parseMediaType(mediaType);
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unsupported format: " + format);
+            }
+        }
+    }
+
+    // The cursor needs an open transaction for as long as rows are being written
+    @Transactional(readOnly = true)
+    public void writeProducts(boolean includeArchived, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<ProductTransferRow> rows = productRepository.streamTransferRows(includeArchived)) {
+            if (format == Format.CSV) {
+                writer.write(String.join(",", COLUMNS));
+                writer.write('\n');
+            }
+            int written = 0;
+            Iterator<ProductTransferRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                ProductTransferRow row = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvLine(row, writer);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                }
+                writer.write('\n');
+                if (++written % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsvLine(ProductTransferRow row, Writer writer) throws IOException {
+        writer.write(String.join(",",
+                csv(row.sku()),
+                csv(row.name()),
+                csv(row.description()),
+                csv(row.price() != null ? row.price().toPlainString() : null),
+                csv(row.category()),
+                csv(row.brand()),
+                csv(row.stockQuantity()),
+                csv(row.lowStockThreshold()),
+                csv(row.warrantyPeriodMonths()),
+                csv(row.keywords()),
+                csv(row.active())
+        ));
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,315 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.dto.ProductDto;
+import com.zerox.csm.event.CategoryChangedEvent;
+import com.zerox.csm.event.ProductChangedEvent;
+import com.zerox.csm.model.Category;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.repository.CategoryRepository;
+import com.zerox.csm.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Bitset facet index over the active catalog: one bitset per brand, per category and per price bucket.
+// Facet counts are bitset intersections, so a sidebar needs no extra count queries.
+@Component
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Value("${app.search.facets.price-buckets:0,100,250,500,1000,2500}")
+    private String priceBucketEdges;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Dense document ids; slots of removed products are reused
+    private final Map<UUID, Integer> docIds = new HashMap<>();
+    private final List<FacetDoc> docs = new ArrayList<>();
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    private final Map<String, BitSet> brandBits = new HashMap<>();
+    private final Map<UUID, BitSet> categoryBits = new HashMap<>();
+    private BitSet[] priceBucketBits = new BitSet[0];
+    private BigDecimal[] bucketEdges = new BigDecimal[0];
+
+    private Map<UUID, CategoryNode> categories = Map.of();
+    private Map<UUID, List<UUID>> childCategories = Map.of();
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> catalog = productRepository.findAllActiveWithCategory();
+        List<Category> allCategories = categoryRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            bucketEdges = Arrays.stream(priceBucketEdges.split(","))
+                    .map(String::trim)
+                    .map(BigDecimal::new)
+                    .sorted()
+                    .toArray(BigDecimal[]::new);
+            priceBucketBits = new BitSet[bucketEdges.length];
+            for (int i = 0; i < priceBucketBits.length; i++) {
+                priceBucketBits[i] = new BitSet();
+            }
+
+            docIds.clear();
+            docs.clear();
+            freeDocIds.clear();
+            live.clear();
+            brandBits.clear();
+            categoryBits.clear();
+            catalog.forEach(this::addUnlocked);
+            loadCategoriesUnlocked(allCategories);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getProductId());
+            if (!event.isDeleted() && Boolean.TRUE.equals(product.getActive())) {
+                addUnlocked(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        List<Category> allCategories = categoryRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            loadCategoriesUnlocked(allCategories);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Counts are disjunctive: each facet ignores its own filter, so the sidebar shows
+    // how many results every alternative brand, category or price range would give.
+    // candidateIds restricts counting to text matches; null means the whole active catalog.
+    public ProductDto.Facets count(
+            Collection<UUID> candidateIds,
+            UUID categoryId,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String brand
+    ) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (candidateIds != null) {
+                BitSet candidates = new BitSet();
+                for (UUID productId : candidateIds) {
+                    Integer docId = docIds.get(productId);
+                    if (docId != null) {
+                        candidates.set(docId);
+                    }
+                }
+                base.and(candidates);
+            }
+
+            BitSet brandFilter = brand == null ? null : brandBits.getOrDefault(brand, new BitSet());
+            // Filtering by a category keeps products anywhere in its subtree, like the product search
+            Map<UUID, BitSet> subtrees = new HashMap<>();
+            BitSet categoryFilter = categoryId == null ? null : subtreeBits(categoryId, subtrees, new HashSet<>());
+            BitSet priceFilter = minPrice == null && maxPrice == null ? null : priceRange(base, minPrice, maxPrice);
+
+            BitSet brandBase = intersect(base, categoryFilter, priceFilter);
+            List<ProductDto.BrandFacet> brandFacets = new ArrayList<>();
+            brandBits.forEach((brandName, bits) -> {
+                int count = intersectionSize(brandBase, bits);
+                if (count > 0) {
+                    brandFacets.add(new ProductDto.BrandFacet(brandName, count));
+                }
+            });
+            brandFacets.sort(Comparator.comparingInt(ProductDto.BrandFacet::count).reversed()
+                    .thenComparing(ProductDto.BrandFacet::brand));
+
+            // Category counts roll up the whole subtree below each category
+            BitSet categoryBase = intersect(base, brandFilter, priceFilter);
+            List<ProductDto.CategoryFacet> categoryFacets = new ArrayList<>();
+            categories.forEach((id, node) -> {
+                int count = intersectionSize(categoryBase, subtreeBits(id, subtrees, new HashSet<>()));
+                if (count > 0) {
+                    categoryFacets.add(new ProductDto.CategoryFacet(id, node.name(), node.parentCategoryId(), count));
+                }
+            });
+            categoryFacets.sort(Comparator.comparingInt(ProductDto.CategoryFacet::count).reversed()
+                    .thenComparing(ProductDto.CategoryFacet::name));
+
+            BitSet priceBase = intersect(base, brandFilter, categoryFilter);
+            List<ProductDto.PriceBucketFacet> priceFacets = new ArrayList<>();
+            for (int i = 0; i < bucketEdges.length; i++) {
+                priceFacets.add(new ProductDto.PriceBucketFacet(
+                        bucketEdges[i],
+                        i + 1 < bucketEdges.length ? bucketEdges[i + 1] : null,
+                        intersectionSize(priceBase, priceBucketBits[i])
+                ));
+            }
+
+            int total = intersect(base, brandFilter, categoryFilter, priceFilter).cardinality();
+            return new ProductDto.Facets(total, brandFacets, categoryFacets, priceFacets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper methods (callers must hold the lock)
+    private void addUnlocked(Product product) {
+        int docId = freeDocIds.isEmpty() ? docs.size() : freeDocIds.pop();
+        FacetDoc doc = new FacetDoc(
+                product.getProductId(),
+                product.getBrand(),
+                product.getCategory() != null ? product.getCategory().getCategoryId() : null,
+                product.getPrice(),
+                bucketOf(product.getPrice())
+        );
+        if (docId == docs.size()) {
+            docs.add(doc);
+        } else {
+            docs.set(docId, doc);
+        }
+        docIds.put(doc.productId(), docId);
+        live.set(docId);
+
+        if (doc.brand() != null) {
+            brandBits.computeIfAbsent(doc.brand(), key -> new BitSet()).set(docId);
+        }
+        if (doc.categoryId() != null) {
+            categoryBits.computeIfAbsent(doc.categoryId(), key -> new BitSet()).set(docId);
+        }
+        if (doc.priceBucket() >= 0) {
+            priceBucketBits[doc.priceBucket()].set(docId);
+        }
+    }
+
+    private void removeUnlocked(UUID productId) {
+        Integer docId = docIds.remove(productId);
+        if (docId == null) {
+            return;
+        }
+
+        FacetDoc doc = docs.get(docId);
+        live.clear(docId);
+        if (doc.brand() != null) {
+            clearBit(brandBits, doc.brand(), docId);
+        }
+        if (doc.categoryId() != null) {
+            clearBit(categoryBits, doc.categoryId(), docId);
+        }
+        if (doc.priceBucket() >= 0) {
+            priceBucketBits[doc.priceBucket()].clear(docId);
+        }
+        docs.set(docId, null);
+        freeDocIds.push(docId);
+    }
+
+    private void loadCategoriesUnlocked(List<Category> allCategories) {
+        Map<UUID, CategoryNode> nodes = new HashMap<>();
+        Map<UUID, List<UUID>> children = new HashMap<>();
+        for (Category category : allCategories) {
+            UUID parentId = category.getParentCategory() != null ? category.getParentCategory().getCategoryId() : null;
+            nodes.put(category.getCategoryId(), new CategoryNode(category.getName(), parentId));
+            if (parentId != null) {
+                children.computeIfAbsent(parentId, key -> new ArrayList<>()).add(category.getCategoryId());
+            }
+        }
+        categories = nodes;
+        childCategories = children;
+    }
+
+    private BitSet subtreeBits(UUID categoryId, Map<UUID, BitSet> memo, Set<UUID> visiting) {
+        BitSet cached = memo.get(categoryId);
+        if (cached != null) {
+            return cached;
+        }
+
+        BitSet bits = (BitSet) categoryBits.getOrDefault(categoryId, new BitSet()).clone();
+        visiting.add(categoryId);
+        for (UUID childId : childCategories.getOrDefault(categoryId, List.of())) {
+            if (!visiting.contains(childId)) {
+                bits.or(subtreeBits(childId, memo, visiting));
+            }
+        }
+        visiting.remove(categoryId);
+        memo.put(categoryId, bits);
+        return bits;
+    }
+
+    private BitSet priceRange(BitSet base, BigDecimal minPrice, BigDecimal maxPrice) {
+        BitSet bits = new BitSet();
+        for (int docId = base.nextSetBit(0); docId >= 0; docId = base.nextSetBit(docId + 1)) {
+            BigDecimal price = docs.get(docId).price();
+            if ((minPrice == null || price.compareTo(minPrice) >= 0)
+                    && (maxPrice == null || price.compareTo(maxPrice) <= 0)) {
+                bits.set(docId);
+            }
+        }
+        return bits;
+    }
+
+    private int bucketOf(BigDecimal price) {
+        int bucket = -1;
+        for (int i = 0; i < bucketEdges.length && price.compareTo(bucketEdges[i]) >= 0; i++) {
+            bucket = i;
+        }
+        return bucket;
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static int intersectionSize(BitSet left, BitSet right) {
+        BitSet result = (BitSet) left.clone();
+        result.and(right);
+        return result.cardinality();
+    }
+
+    private static <K> void clearBit(Map<K, BitSet> index, K key, int docId) {
+        BitSet bits = index.get(key);
+        if (bits != null) {
+            bits.clear(docId);
+            if (bits.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private record FacetDoc(UUID productId, String brand, UUID categoryId, BigDecimal price, int priceBucket) {}
+
+    private record CategoryNode(String name, UUID parentCategoryId) {}
+}
@@ -0,0 +1,662 @@
+package com.zerox.csm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerox.csm.dto.ProductDto;
+import com.zerox.csm.dto.ProductDto.ProductTransferRow;
+import com.zerox.csm.event.ProductChangedEvent;
+import com.zerox.csm.exception.ResourceNotFoundException;
+import com.zerox.csm.model.InventoryLog;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.model.id.UuidBytes;
+import com.zerox.csm.model.id.UuidV7;
+import com.zerox.csm.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bulk product import. The upload is spooled to a temp file and the request returns a job id
+// straight away; a single worker then reads the file one row at a time and upserts by sku in
+// batches: one SELECT for the batch's existing skus, one multi-row INSERT for new products and
+// one JDBC batch of UPDATEs, in one transaction per batch. A row that fails validation is
+// recorded against the job and skipped; it does not stop the rest of the file.
+// Inventory logs go through the InventoryJournal, and the caches, search indexes and stock
+// alerts are refreshed once per batch instead of once per product.
+@Service
+public class ProductImportService {
+
+    private static final int MAX_ERRORS = 1000;
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO products (product_id, sku, name, description, price, category_id, brand, stock_quantity, "
+                    + "low_stock_threshold, warranty_period_months, keywords, active, created_at) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // A value left out of the file keeps what the product already has
+    private static final String UPDATE =
+            "UPDATE products SET name = COALESCE(?, name), description = COALESCE(?, description), "
+                    + "price = COALESCE(?, price), category_id = COALESCE(?, category_id), brand = COALESCE(?, brand), "
+                    + "stock_quantity = COALESCE(?, stock_quantity), low_stock_threshold = COALESCE(?, low_stock_threshold), "
+                    + "warranty_period_months = COALESCE(?, warranty_period_months), keywords = COALESCE(?, keywords), "
+                    + "active = COALESCE(?, active) WHERE product_id = ?";
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    // Progress of one import, written by the worker and read by status requests
+    private static final class ImportJob {
+        private final UUID jobId = UuidV7.next();
+        private final ProductExportService.Format format;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong updated = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<ProductDto.ImportRowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(ProductExportService.Format format) {
+            this.format = format;
+        }
+
+        // Only the first MAX_ERRORS are kept; failed keeps counting
+        private void error(long row, String sku, String message) {
+            failed.incrementAndGet();
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new ProductDto.ImportRowError(row, sku, message));
+            }
+        }
+
+        private ProductDto.ImportJobResponse toResponse() {
+            List<ProductDto.ImportRowError> errorsSoFar;
+            synchronized (errors) {
+                errorsSoFar = List.copyOf(errors);
+            }
+            return new ProductDto.ImportJobResponse(
+                    jobId,
+                    status.name(),
+                    format.name(),
+                    rowsRead.get(),
+                    inserted.get(),
+                    updated.get(),
+                    failed.get(),
+                    errorsSoFar,
+                    failed.get() > errorsSoFar.size(),
+                    message,
+                    createdAt,
+                    startedAt,
+                    finishedAt
+            );
+        }
+    }
+
+    // A validated row waiting for its batch; categoryId is null when the file leaves it out
+    private record PendingRow(long row, ProductTransferRow data, UUID categoryId) {
+    }
+
+    private record ExistingProduct(UUID productId, int stockQuantity, Integer lowStockThreshold) {
+    }
+
+    // What one committed batch changed; errors are rows that could only be rejected once their sku was looked up
+    private record BatchResult(
+            int inserted,
+            int updated,
+            List<UUID> saved,
+            Set<UUID> stockChanged,
+            List<ProductDto.ImportRowError> errors
+    ) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final TaskExecutor productImportExecutor;
+    private final ObjectMapper objectMapper;
+    private final CategoryTree categoryTree;
+    private final InventoryJournal inventoryJournal;
+    private final ProductRepository productRepository;
+    private final StockAlertEngine stockAlertEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final Cache<UUID, ImportJob> jobs;
+
+    public ProductImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("productImportExecutor") TaskExecutor productImportExecutor,
+            ObjectMapper objectMapper,
+            CategoryTree categoryTree,
+            InventoryJournal inventoryJournal,
+            ProductRepository productRepository,
+            StockAlertEngine stockAlertEngine,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.products.import.batch-size:500}") int batchSize,
+            @Value("${app.products.import.job-retention:PT24H}") Duration jobRetention
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.productImportExecutor = productImportExecutor;
+        this.objectMapper = objectMapper;
+        this.categoryTree = categoryTree;
+        this.inventoryJournal = inventoryJournal;
+        this.productRepository = productRepository;
+        this.stockAlertEngine = stockAlertEngine;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobRetention)
+                .build();
+    }
+
+    // Throws TaskRejectedException when too many imports are already waiting
+    public ProductDto.ImportJobResponse submit(InputStream upload, ProductExportService.Format format) throws IOException {
+        Path file = Files.createTempFile("product-import-", "." + format.extension());
+        ImportJob job = new ImportJob(format);
+        try {
+            Files.copy(upload, file, StandardCopyOption.REPLACE_EXISTING);
+            jobs.put(job.jobId, job);
+            productImportExecutor.execute(() -> run(job, file));
+        } catch (IOException | TaskRejectedException ex) {
+            jobs.invalidate(job.jobId);
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        return job.toResponse();
+    }
+
+    public ProductDto.ImportJobResponse getJob(UUID jobId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found");
+        }
+        return job.toResponse();
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.startedAt = LocalDateTime.now();
+        job.status = JobStatus.RUNNING;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CategoryMatcher categories = new CategoryMatcher(categoryTree.all());
+            // Keyed like the sku unique index, which ignores case under MySQL's default collation
+            Map<String, PendingRow> batch = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            if (job.format == ProductExportService.Format.CSV) {
+                readCsv(reader, job, categories, batch);
+            } else {
+                readNdjson(reader, job, categories, batch);
+            }
+            flush(job, batch);
+            job.status = JobStatus.COMPLETED;
+        } catch (IOException | RuntimeException ex) {
+            // Batches committed before the failure stay imported
+            job.message = ex.getMessage();
+            job.status = JobStatus.FAILED;
+            System.out.println("Product import " + job.jobId + " failed after " + job.rowsRead.get() + " rows: " + ex.getMessage());
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                System.out.println("Could not delete import file " + file + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportJob job, CategoryMatcher categories, Map<String, PendingRow> batch)
+            throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        // Header names match with or without underscores and in any case, so stock_quantity and stockQuantity both work
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(columnKey(header.get(i)), i);
+        }
+        if (!columns.containsKey("sku")) {
+            throw new IllegalArgumentException("The header has no sku column");
+        }
+
+        long row = 0;
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            row++;
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            job.rowsRead.incrementAndGet();
+            String sku = cell(fields, columns, "sku");
+            ProductTransferRow data;
+            try {
+                data = new ProductTransferRow(
+                        sku,
+                        cell(fields, columns, "name"),
+                        cell(fields, columns, "description"),
+                        decimalCell(fields, columns, "price"),
+                        cell(fields, columns, "category"),
+                        cell(fields, columns, "brand"),
+                        intCell(fields, columns, "stock_quantity"),
+                        intCell(fields, columns, "low_stock_threshold"),
+                        intCell(fields, columns, "warranty_period_months"),
+                        cell(fields, columns, "keywords"),
+                        booleanCell(fields, columns, "active")
+                );
+            } catch (IllegalArgumentException ex) {
+                job.error(row, sku, ex.getMessage());
+                continue;
+            }
+            accept(job, row, data, categories, batch);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportJob job, CategoryMatcher categories, Map<String, PendingRow> batch)
+            throws IOException {
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            job.rowsRead.incrementAndGet();
+            ProductTransferRow data;
+            try {
+                data = objectMapper.readValue(line, ProductTransferRow.class);
+            } catch (JsonProcessingException ex) {
+                job.error(row, null, "Invalid JSON: " + ex.getOriginalMessage());
+                continue;
+            }
+            accept(job, row, data, categories, batch);
+        }
+    }
+
+    // Checks what can be checked without the database and adds the row to the batch
+    private void accept(ImportJob job, long row, ProductTransferRow data, CategoryMatcher categories,
+                        Map<String, PendingRow> batch) {
+        String sku = data.sku() != null ? data.sku().trim() : null;
+        if (sku == null || sku.isEmpty()) {
+            job.error(row, null, "sku is required");
+            return;
+        }
+        if (data.price() != null && data.price().signum() <= 0) {
+            job.error(row, sku, "price must be positive");
+            return;
+        }
+        if ((data.stockQuantity() != null && data.stockQuantity() < 0)
+                || (data.lowStockThreshold() != null && data.lowStockThreshold() < 0)) {
+            job.error(row, sku, "stock_quantity and low_stock_threshold cannot be negative");
+            return;
+        }
+        UUID categoryId = null;
+        if (data.category() != null && !data.category().isBlank()) {
+            try {
+                categoryId = categories.match(data.category().trim());
+            } catch (IllegalArgumentException ex) {
+                job.error(row, sku, ex.getMessage());
+                return;
+            }
+        }
+
+        // A sku that appears again is written after the earlier row, so the last one wins
+        if (batch.containsKey(sku)) {
+            flush(job, batch);
+        }
+        batch.put(sku, new PendingRow(row, withSku(data, sku), categoryId));
+        if (batch.size() >= batchSize) {
+            flush(job, batch);
+        }
+    }
+
+    private void flush(ImportJob job, Map<String, PendingRow> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingRow> rows = List.copyOf(batch.values());
+        batch.clear();
+        try {
+            applied(job, requiresNew.execute(status -> write(rows)));
+        } catch (DataAccessException ex) {
+            // Typically a sku created by someone else meanwhile, or a value too long for its column.
+            // Each row is retried in a transaction of its own so the bad ones can be reported.
+            System.out.println("Product import batch of " + rows.size() + " failed, writing rows one by one: " + ex.getMessage());
+            for (PendingRow row : rows) {
+                try {
+                    applied(job, requiresNew.execute(status -> write(List.of(row))));
+                } catch (DataAccessException rowEx) {
+                    // Driver messages go on to repeat the statement; the first line is the useful part
+                    String reason = String.valueOf(rowEx.getMostSpecificCause().getMessage()).lines().findFirst().orElse("");
+                    job.error(row.row(), row.data().sku(), "Could not be saved: " + reason);
+                }
+            }
+        }
+    }
+
+    private BatchResult write(List<PendingRow> rows) {
+        Map<String, ExistingProduct> existing = findExisting(rows);
+        List<PendingRow> inserts = new ArrayList<>();
+        List<UUID> insertIds = new ArrayList<>();
+        List<PendingRow> updates = new ArrayList<>();
+        List<ExistingProduct> updated = new ArrayList<>();
+        List<ProductDto.ImportRowError> errors = new ArrayList<>();
+        for (PendingRow row : rows) {
+            ExistingProduct product = existing.get(row.data().sku());
+            if (product != null) {
+                updates.add(row);
+                updated.add(product);
+            } else if (row.data().name() == null || row.data().name().isBlank()
+                    || row.data().price() == null || row.categoryId() == null) {
+                errors.add(new ProductDto.ImportRowError(row.row(), row.data().sku(),
+                        "name, price and category are required for a new product"));
+            } else {
+                inserts.add(row);
+                insertIds.add(UuidV7.next());
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            insert(inserts, insertIds);
+        }
+        if (!updates.isEmpty()) {
+            update(updates, updated);
+        }
+
+        List<UUID> saved = new ArrayList<>(insertIds);
+        Set<UUID> stockChanged = new HashSet<>(insertIds);
+        for (int i = 0; i < inserts.size(); i++) {
+            int stock = stockOf(inserts.get(i).data());
+            if (stock > 0) {
+                inventoryJournal.record(insertIds.get(i), 0, stock, null, InventoryLog.InventoryChangeType.RESTOCK);
+            }
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            ProductTransferRow data = updates.get(i).data();
+            ExistingProduct product = updated.get(i);
+            saved.add(product.productId());
+            if (data.stockQuantity() != null && data.stockQuantity() != product.stockQuantity()) {
+                inventoryJournal.record(
+                        product.productId(),
+                        product.stockQuantity(),
+                        data.stockQuantity(),
+                        null,
+                        data.stockQuantity() > product.stockQuantity()
+                                ? InventoryLog.InventoryChangeType.RESTOCK
+                                : InventoryLog.InventoryChangeType.ADJUSTMENT
+                );
+                stockChanged.add(product.productId());
+            }
+            if (data.lowStockThreshold() != null && !data.lowStockThreshold().equals(product.lowStockThreshold())) {
+                stockChanged.add(product.productId());
+            }
+        }
+        return new BatchResult(inserts.size(), updates.size(), saved, stockChanged, errors);
+    }
+
+    // Runs after the batch has committed
+    private void applied(ImportJob job, BatchResult result) {
+        job.inserted.addAndGet(result.inserted());
+        job.updated.addAndGet(result.updated());
+        for (ProductDto.ImportRowError error : result.errors()) {
+            job.error(error.row(), error.sku(), error.message());
+        }
+        if (result.saved().isEmpty()) {
+            return;
+        }
+        List<Product> products = productRepository.findAllById(result.saved());
+        products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.saved(product)));
+        stockAlertEngine.evaluate(products.stream()
+                .filter(product -> result.stockChanged().contains(product.getProductId()))
+                .toList());
+    }
+
+    private Map<String, ExistingProduct> findExisting(List<PendingRow> rows) {
+        List<byte[]> ids = jdbcTemplate.query(
+                "SELECT product_id FROM products WHERE sku IN (" + String.join(", ", Collections.nCopies(rows.size(), "?")) + ")",
+                statement -> {
+                    int index = 1;
+                    for (PendingRow row : rows) {
+                        statement.setString(index++, row.data().sku());
+                    }
+                },
+                (resultSet, rowNum) -> resultSet.getBytes("product_id"));
+        Map<String, ExistingProduct> existing = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (ids.isEmpty()) {
+            return existing;
+        }
+
+        // Locked until the batch commits: the update writes absolute stock values, and the journal logs the
+        // quantities read here as the old ones, so no checkout or adjustment may change them in between.
+        // Taken in product_id order, like StockAdjustmentService and checkout, so concurrent writers cannot deadlock
+        String sql = "SELECT product_id, sku, stock_quantity, low_stock_threshold FROM products WHERE product_id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") ORDER BY product_id FOR UPDATE";
+        jdbcTemplate.query(sql, statement -> {
+            int index = 1;
+            for (byte[] id : ids) {
+                statement.setBytes(index++, id);
+            }
+        }, resultSet -> {
+            existing.put(resultSet.getString("sku"), new ExistingProduct(
+                    UuidBytes.fromBytes(resultSet.getBytes("product_id")),
+                    resultSet.getInt("stock_quantity"),
+                    resultSet.getObject("low_stock_threshold", Integer.class)
+            ));
+        });
+        return existing;
+    }
+
+    private void insert(List<PendingRow> rows, List<UUID> ids) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(rows.size(), INSERT_ROW));
+        jdbcTemplate.update(sql, statement -> {
+            int index = 1;
+            for (int i = 0; i < rows.size(); i++) {
+                ProductTransferRow data = rows.get(i).data();
+                statement.setBytes(index++, UuidBytes.toBytes(ids.get(i)));
+                statement.setString(index++, data.sku());
+                statement.setString(index++, data.name().trim());
+                setString(statement, index++, data.description());
+                statement.setBigDecimal(index++, data.price());
+                statement.setBytes(index++, UuidBytes.toBytes(rows.get(i).categoryId()));
+                setString(statement, index++, data.brand());
+                statement.setInt(index++, stockOf(data));
+                statement.setInt(index++, data.lowStockThreshold() != null
+                        ? data.lowStockThreshold()
+                        : Product.DEFAULT_LOW_STOCK_THRESHOLD);
+                setInteger(statement, index++, data.warrantyPeriodMonths());
+                setString(statement, index++, data.keywords());
+                statement.setBoolean(index++, data.active() == null || data.active());
+                statement.setTimestamp(index++, now);
+            }
+        });
+    }
+
+    private void update(List<PendingRow> rows, List<ExistingProduct> products) {
+        jdbcTemplate.batchUpdate(UPDATE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                PendingRow row = rows.get(i);
+                ProductTransferRow data = row.data();
+                int index = 1;
+                setString(statement, index++, data.name() != null && !data.name().isBlank() ? data.name().trim() : null);
+                setString(statement, index++, data.description());
+                if (data.price() != null) {
+                    statement.setBigDecimal(index++, data.price());
+                } else {
+                    statement.setNull(index++, Types.DECIMAL);
+                }
+                if (row.categoryId() != null) {
+                    statement.setBytes(index++, UuidBytes.toBytes(row.categoryId()));
+                } else {
+                    statement.setNull(index++, Types.BINARY);
+                }
+                setString(statement, index++, data.brand());
+                setInteger(statement, index++, data.stockQuantity());
+                setInteger(statement, index++, data.lowStockThreshold());
+                setInteger(statement, index++, data.warrantyPeriodMonths());
+                setString(statement, index++, data.keywords());
+                if (data.active() != null) {
+                    statement.setBoolean(index++, data.active());
+                } else {
+                    statement.setNull(index++, Types.BOOLEAN);
+                }
+                statement.setBytes(index, UuidBytes.toBytes(products.get(i).productId()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private static int stockOf(ProductTransferRow data) {
+        return data.stockQuantity() != null ? data.stockQuantity() : 0;
+    }
+
+    private static ProductTransferRow withSku(ProductTransferRow data, String sku) {
+        return new ProductTransferRow(sku, data.name(), data.description(), data.price(), data.category(),
+                data.brand(), data.stockQuantity(), data.lowStockThreshold(), data.warrantyPeriodMonths(),
+                data.keywords(), data.active());
+    }
+
+    private static void setString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value != null) {
+            statement.setString(index, value);
+        } else {
+            statement.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    private static void setInteger(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value != null) {
+            statement.setInt(index, value);
+        } else {
+            statement.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static String columnKey(String header) {
+        return header.replace("\uFEFF", "").replace("_", "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Empty cells and columns missing from the header read as null
+    private static String cell(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(columnKey(column));
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static BigDecimal decimalCell(List<String> fields, Map<String, Integer> columns, String column) {
+        String value = cell(fields, columns, column);
+        try {
+            return value != null ? new BigDecimal(value.trim()) : null;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Integer intCell(List<String> fields, Map<String, Integer> columns, String column) {
+        String value = cell(fields, columns, column);
+        try {
+            return value != null ? Integer.valueOf(value.trim()) : null;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Boolean booleanCell(List<String> fields, Map<String, Integer> columns, String column) {
+        String value = cell(fields, columns, column);
+        if (value == null) {
+            return null;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        };
+    }
+
+    // Resolves the category column against the in-memory category tree, taken once per import
+    private static final class CategoryMatcher {
+        private final Map<UUID, UUID> ids = new HashMap<>();
+        private final Map<String, UUID> slugs = new HashMap<>();
+        private final Map<String, List<UUID>> names = new HashMap<>();
+
+        private CategoryMatcher(List<CategoryTree.Node> categories) {
+            for (CategoryTree.Node category : categories) {
+                ids.put(category.categoryId(), category.categoryId());
+                if (category.slug() != null) {
+                    slugs.put(category.slug().toLowerCase(Locale.ROOT), category.categoryId());
+                }
+                names.computeIfAbsent(category.name().toLowerCase(Locale.ROOT), key -> new ArrayList<>())
+                        .add(category.categoryId());
+            }
+        }
+
+        // Id first, then slug, then name; a name shared by several categories has to be given as slug or id
+        private UUID match(String value) {
+            try {
+                UUID id = ids.get(UUID.fromString(value));
+                if (id != null) {
+                    return id;
+                }
+            } catch (IllegalArgumentException ex) {
+                // Not an id
+            }
+            String key = value.toLowerCase(Locale.ROOT);
+            UUID bySlug = slugs.get(key);
+            if (bySlug != null) {
+                return bySlug;
+            }
+            List<UUID> byName = names.getOrDefault(key, List.of());
+            if (byName.size() > 1) {
+                throw new IllegalArgumentException("Category name " + value + " is ambiguous, use its slug or id");
+            }
+            if (byName.isEmpty()) {
+                throw new IllegalArgumentException("Unknown category: " + value);
+            }
+            return byName.get(0);
+        }
+    }
+}
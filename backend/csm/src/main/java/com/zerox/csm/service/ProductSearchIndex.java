@@ -0,0 +1,280 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.event.ProductChangedEvent;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over the active catalog.
+// Built once the application is ready and kept in sync through ProductChangedEvent.
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    // Full-text fields, in the order used by the per-field arrays below
+    static final int FIELD_NAME = 0;
+    static final int FIELD_KEYWORDS = 1;
+    static final int FIELD_DESCRIPTION = 2;
+    private static final double[] FIELD_BOOSTS = {3.0, 2.0, 1.0};
+    private static final double[] FIELD_LENGTH_NORMS = {0.5, 0.5, 0.75};
+    private static final double K1 = 1.2;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // keyword term -> (productId -> occurrences of the term in the product keywords)
+    private final Map<String, Map<UUID, Integer>> keywordPostings = new HashMap<>();
+    // analyzed term -> (productId -> term frequency per field)
+    private final Map<String, Map<UUID, int[]>> textPostings = new HashMap<>();
+    private final Map<UUID, IndexedProduct> products = new HashMap<>();
+    private final long[] totalFieldLengths = new long[FIELD_BOOSTS.length];
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> catalog = productRepository.findAllActiveWithCategory();
+
+        lock.writeLock().lock();
+        try {
+            keywordPostings.clear();
+            textPostings.clear();
+            products.clear();
+            Arrays.fill(totalFieldLengths, 0);
+            catalog.forEach(this::addUnlocked);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Product search index built with " + catalog.size() + " products");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getProductId());
+            // Archived products are not searchable
+            if (!event.isDeleted() && Boolean.TRUE.equals(product.getActive())) {
+                addUnlocked(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Scores each product by the number of keyword occurrences matching one of the terms
+    public List<KeywordMatch> searchKeywords(Collection<String> terms) {
+        Map<UUID, Integer> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (String term : terms) {
+                Map<UUID, Integer> postings = keywordPostings.get(term);
+                if (postings != null) {
+                    postings.forEach((productId, count) -> scores.merge(productId, count, Integer::sum));
+                }
+            }
+
+            List<KeywordMatch> matches = new ArrayList<>(scores.size());
+            scores.forEach((productId, score) -> matches.add(new KeywordMatch(products.get(productId), score)));
+            matches.sort(Comparator.comparingInt(KeywordMatch::score).reversed()
+                    .thenComparing(match -> match.product().name()));
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // BM25F ranking over name, keywords and description, restricted to products matching the filter.
+    // Only the posting lists of the query terms are visited, so cost follows the matches, not the catalog.
+    public List<TextMatch> searchText(String query, SearchFilter filter) {
+        List<String> terms = TextAnalyzer.analyze(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            int documentCount = products.size();
+            double[] averageLengths = new double[totalFieldLengths.length];
+            for (int field = 0; field < averageLengths.length; field++) {
+                averageLengths[field] = documentCount == 0 ? 1.0 : Math.max(1.0, (double) totalFieldLengths[field] / documentCount);
+            }
+
+            for (String term : terms) {
+                Map<UUID, int[]> postings = textPostings.get(term);
+                if (postings == null) {
+                    continue;
+                }
+
+                double idf = Math.log(1 + (documentCount - postings.size() + 0.5) / (postings.size() + 0.5));
+                postings.forEach((productId, frequencies) -> {
+                    IndexedProduct product = products.get(productId);
+                    if (filter != null && !filter.matches(product)) {
+                        return;
+                    }
+
+                    double weightedFrequency = 0;
+                    for (int field = 0; field < frequencies.length; field++) {
+                        if (frequencies[field] == 0) {
+                            continue;
+                        }
+                        double lengthNorm = 1 - FIELD_LENGTH_NORMS[field]
+                                + FIELD_LENGTH_NORMS[field] * product.fieldLengths()[field] / averageLengths[field];
+                        weightedFrequency += FIELD_BOOSTS[field] * frequencies[field] / lengthNorm;
+                    }
+
+                    double score = idf * weightedFrequency * (K1 + 1) / (weightedFrequency + K1);
+                    scores.merge(productId, score, Double::sum);
+                });
+            }
+
+            List<TextMatch> matches = new ArrayList<>(scores.size());
+            scores.forEach((productId, score) -> matches.add(new TextMatch(products.get(productId), score)));
+            matches.sort(Comparator.comparingDouble(TextMatch::score).reversed()
+                    .thenComparing(match -> match.product().name()));
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper methods (callers must hold the write lock)
+    private void addUnlocked(Product product) {
+        List<String> keywordTerms = tokenizeKeywords(product.getKeywords());
+
+        List<List<String>> fieldTerms = List.of(
+                TextAnalyzer.analyze(product.getName()),
+                TextAnalyzer.analyze(product.getKeywords()),
+                TextAnalyzer.analyze(product.getDescription())
+        );
+        int[] fieldLengths = new int[fieldTerms.size()];
+        Set<String> textTerms = new HashSet<>();
+        for (int field = 0; field < fieldTerms.size(); field++) {
+            fieldLengths[field] = fieldTerms.get(field).size();
+            totalFieldLengths[field] += fieldLengths[field];
+            textTerms.addAll(fieldTerms.get(field));
+        }
+
+        IndexedProduct indexed = new IndexedProduct(
+                product.getProductId(),
+                product.getName(),
+                product.getPrice(),
+                product.getImageUrl(),
+                product.getBrand(),
+                product.getCategory() != null ? product.getCategory().getCategoryId() : null,
+                product.getCreatedAt(),
+                new HashSet<>(keywordTerms),
+                textTerms,
+                fieldLengths
+        );
+        products.put(indexed.productId(), indexed);
+
+        for (String term : keywordTerms) {
+            keywordPostings.computeIfAbsent(term, key -> new HashMap<>())
+                    .merge(indexed.productId(), 1, Integer::sum);
+        }
+
+        for (int field = 0; field < fieldTerms.size(); field++) {
+            for (String term : fieldTerms.get(field)) {
+                textPostings.computeIfAbsent(term, key -> new HashMap<>())
+                        .computeIfAbsent(indexed.productId(), key -> new int[FIELD_BOOSTS.length])[field]++;
+            }
+        }
+    }
+
+    private void removeUnlocked(UUID productId) {
+        IndexedProduct existing = products.remove(productId);
+        if (existing == null) {
+            return;
+        }
+
+        for (String term : existing.keywordTerms()) {
+            removePosting(keywordPostings, term, productId);
+        }
+        for (String term : existing.textTerms()) {
+            removePosting(textPostings, term, productId);
+        }
+        for (int field = 0; field < totalFieldLengths.length; field++) {
+            totalFieldLengths[field] -= existing.fieldLengths()[field];
+        }
+    }
+
+    private static <V> void removePosting(Map<String, Map<UUID, V>> index, String term, UUID productId) {
+        Map<UUID, V> postings = index.get(term);
+        if (postings != null) {
+            postings.remove(productId);
+            if (postings.isEmpty()) {
+                index.remove(term);
+            }
+        }
+    }
+
+    private List<String> tokenizeKeywords(String keywords) {
+        if (keywords == null || keywords.isBlank()) {
+            return List.of();
+        }
+
+        return Arrays.stream(keywords.trim().toLowerCase().split("\\s+"))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    public record IndexedProduct(
+            UUID productId,
+            String name,
+            BigDecimal price,
+            String imageUrl,
+            String brand,
+            UUID categoryId,
+            LocalDateTime createdAt,
+            Set<String> keywordTerms,
+            Set<String> textTerms,
+            int[] fieldLengths
+    ) {}
+
+    public record KeywordMatch(
+            IndexedProduct product,
+            int score
+    ) {}
+
+    public record TextMatch(
+            IndexedProduct product,
+            double score
+    ) {}
+
+    // categoryIds is the whole subtree of the requested category; null means any category
+    public record SearchFilter(
+            Set<UUID> categoryIds,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String brand
+    ) {
+        public boolean matches(IndexedProduct product) {
+            return (categoryIds == null || categoryIds.contains(product.categoryId()))
+                    && (minPrice == null || product.price().compareTo(minPrice) >= 0)
+                    && (maxPrice == null || product.price().compareTo(maxPrice) <= 0)
+                    && (brand == null || brand.equals(product.brand()));
+        }
+    }
+}
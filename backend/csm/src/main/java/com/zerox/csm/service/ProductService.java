@@ -1,8 +1,11 @@
 package com.zerox.csm.service;
 
+import com.zerox.csm.dto.CursorPage;
 import com.zerox.csm.dto.InventoryLogDto;
 import com.zerox.csm.dto.ProductDiscountDto;
 import com.zerox.csm.dto.ProductDto;
+import com.zerox.csm.event.ProductChangedEvent;
+import com.zerox.csm.event.StockChangedEvent;
 import com.zerox.csm.exception.ResourceNotFoundException;
 import com.zerox.csm.model.*;
 import com.zerox.csm.repository.CategoryRepository;
@@ -11,18 +14,35 @@ import com.zerox.csm.repository.ProductRepository;
 import com.zerox.csm.repository.StockAlertRepository;
 import com.zerox.csm.repository.UserRepository;
 import com.zerox.csm.repository.ProductDiscountRepository;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 // ProductService.java
 @Service
@@ -36,6 +56,23 @@ public class ProductService {
     private final UserRepository userRepository;
     private final ImageStorageService imageStorageService;
     private final ProductDiscountRepository productDiscountRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductCache productCache;
+    private final DomainEventOutbox domainEventOutbox;
+    private final CategoryTree categoryTree;
+    private final InventoryJournal inventoryJournal;
+    private final StockAlertEngine stockAlertEngine;
+
+    private static final String SORT_BY_RELEVANCE = "relevance";
+
+    // Sort keys supported by keyset pagination, with the parser for their cursor values
+    private static final Map<String, Function<String, ?>> SEEK_SORT_KEYS = Map.of(
+            "name", Function.identity(),
+            "price", BigDecimal::new,
+            "createdAt", LocalDateTime::parse
+    );
 
     // Create a new product
     @Transactional
@@ -69,7 +106,7 @@ public class ProductService {
         
         // Log initial inventory if there is stock
         if (request.stockQuantity() > 0) {
-            logInventoryChange(
+            inventoryJournal.record(
                 savedProduct,
                 0,
                 request.stockQuantity(),
@@ -78,26 +115,32 @@ public class ProductService {
             );
         }
         
-        // Check if stock is below threshold
-        checkLowStockLevel(savedProduct);
+        // Low stock alerts are raised by the StockChanged subscriber
+        domainEventOutbox.append(new StockChangedEvent(savedProduct.getProductId(), request.stockQuantity()));
+
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
         
         return mapToProductResponse(savedProduct);
     }
     
     // Get product by ID
     public ProductDto.ProductResponse getProduct(UUID productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-        
-        return mapToProductResponse(product);
+        return productCache.get(productId, id -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+
+            return mapToProductResponse(product);
+        });
     }
     
     // Get product by SKU
     public ProductDto.ProductResponse getProductBySku(String sku) {
-        Product product = productRepository.findBySku(sku)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-        
-        return mapToProductResponse(product);
+        return productCache.getBySku(sku, key -> {
+            Product product = productRepository.findBySku(key)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+
+            return mapToProductResponse(product);
+        });
     }
     
     // Update product
@@ -110,6 +153,7 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
         
         int oldStock = product.getStockQuantity();
+        Integer oldThreshold = product.getLowStockThreshold();
         
         // Handle image update
         if (request.image() != null && !request.image().isEmpty()) {
@@ -148,7 +192,7 @@ public class ProductService {
                     InventoryLog.InventoryChangeType.RESTOCK :
                     InventoryLog.InventoryChangeType.ADJUSTMENT;
             
-            logInventoryChange(
+            inventoryJournal.record(
                 updatedProduct,
                 oldStock,
                 request.stockQuantity(),
@@ -157,8 +201,12 @@ public class ProductService {
             );
         }
         
-        // Check if stock is below threshold
-        checkLowStockLevel(updatedProduct);
+        // A new threshold can open or resolve a low stock alert even when the stock stays the same
+        if (oldStock != request.stockQuantity() || !Objects.equals(oldThreshold, request.lowStockThreshold())) {
+            domainEventOutbox.append(new StockChangedEvent(productId, request.stockQuantity() - oldStock));
+        }
+
+        eventPublisher.publishEvent(ProductChangedEvent.saved(updatedProduct));
         
         return mapToProductResponse(updatedProduct);
     }
@@ -171,12 +219,13 @@ public class ProductService {
         
         // Check if the product has inventory logs
         Page<InventoryLog> inventoryLogs = inventoryLogRepository.findByProductProductId(productId, PageRequest.of(0, 1));
-        if (inventoryLogs.hasContent()) {
+        if (inventoryLogs.hasContent() || inventoryJournal.hasPending(productId)) {
             throw new IllegalStateException("Cannot delete product with existing inventory logs. Please archive it instead.");
         }
 
         // Delete stock alerts associated with this product
         stockAlertRepository.deleteByProductProductId(productId);
+        stockAlertEngine.forget(productId);
 
         // Delete associated image if exists
         if (product.getImageUrl() != null) {
@@ -184,6 +233,8 @@ public class ProductService {
         }
         
         productRepository.deleteById(productId);
+
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(product));
     }
     
     // Search products with filters
@@ -198,8 +249,17 @@ public class ProductService {
             int page,
             int size
     ) {
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection == null || sortDirection.equalsIgnoreCase("asc") ? "ASC" : "DESC"), 
-                sortBy == null ? "name" : sortBy);
+        boolean ascending = sortDirection == null || sortDirection.equalsIgnoreCase("asc");
+
+        // Text queries are ranked by the in-memory full-text index once it is built
+        if (query != null && !query.trim().isEmpty() && productSearchIndex.isReady()) {
+            return searchProductsByRelevance(
+                    productSearchIndex.searchText(query, searchFilter(categoryId, minPrice, maxPrice, brand)),
+                    sortBy, ascending, page, size);
+        }
+
+        String sortProperty = sortBy == null || sortBy.equals(SORT_BY_RELEVANCE) ? "name" : sortBy;
+        Sort sort = Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, sortProperty);
         Pageable pageable = PageRequest.of(page, size, sort);
         
         Page<Product> products;
@@ -211,6 +271,109 @@ public class ProductService {
         
         return products.map(this::mapToProductResponse);
     }
+
+    // Keyset (seek) pagination over the product listing: no OFFSET scan and no COUNT(*),
+    // so page 10,000 costs the same as page 1
+    public CursorPage<ProductDto.ProductResponse> seekProducts(
+            UUID categoryId,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String brand,
+            String sortBy,
+            String sortDirection,
+            String cursor,
+            int size
+    ) {
+        String sortProperty = sortBy != null && SEEK_SORT_KEYS.containsKey(sortBy) ? sortBy : "name";
+        Sort.Direction direction = sortDirection == null || sortDirection.equalsIgnoreCase("asc")
+                ? Sort.Direction.ASC : Sort.Direction.DESC;
+        // productId breaks ties so the seek position is unique
+        Sort sort = Sort.by(direction, sortProperty, "productId");
+
+        Map<String, Function<String, ?>> keyParsers = new LinkedHashMap<>();
+        keyParsers.put(sortProperty, SEEK_SORT_KEYS.get(sortProperty));
+        keyParsers.put("productId", UUID::fromString);
+        ScrollPosition position = SeekCursor.position(cursor, keyParsers);
+
+        Specification<Product> filter = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isTrue(root.get("active")));
+            if (categoryId != null) {
+                // The whole subtree below the category, through the closure table
+                Subquery<UUID> subtree = query.subquery(UUID.class);
+                Root<CategoryClosure> closure = subtree.from(CategoryClosure.class);
+                subtree.select(closure.get("id").get("descendantId"))
+                        .where(cb.equal(closure.get("id").get("ancestorId"), categoryId));
+                predicates.add(root.get("category").get("categoryId").in(subtree));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            if (brand != null) {
+                predicates.add(cb.equal(root.get("brand"), brand));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        Window<Product> window = productRepository.findBy(filter,
+                query -> query.sortBy(sort).limit(size).scroll(position));
+
+        return new CursorPage<>(
+                window.getContent().stream().map(this::mapToProductResponse).toList(),
+                window.size(),
+                window.hasNext(),
+                SeekCursor.next(window)
+        );
+    }
+
+    // Search products and return brand, category and price facet counts with the page
+    public ProductDto.FacetedSearchResponse searchProductsWithFacets(
+            String query,
+            UUID categoryId,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String brand,
+            String sortBy,
+            String sortDirection,
+            int page,
+            int size
+    ) {
+        boolean hasQuery = query != null && !query.trim().isEmpty();
+
+        // Facets are left out while the indexes are still being built at startup
+        if (!productFacetIndex.isReady() || (hasQuery && !productSearchIndex.isReady())) {
+            return new ProductDto.FacetedSearchResponse(
+                    searchProducts(query, categoryId, minPrice, maxPrice, brand, sortBy, sortDirection, page, size),
+                    null
+            );
+        }
+
+        if (!hasQuery) {
+            return new ProductDto.FacetedSearchResponse(
+                    searchProducts(null, categoryId, minPrice, maxPrice, brand, sortBy, sortDirection, page, size),
+                    productFacetIndex.count(null, categoryId, minPrice, maxPrice, brand)
+            );
+        }
+
+        // One text search feeds both the facet counts and the filtered result page
+        ProductSearchIndex.SearchFilter filter = searchFilter(categoryId, minPrice, maxPrice, brand);
+        List<ProductSearchIndex.TextMatch> matches = productSearchIndex.searchText(query, null);
+        List<UUID> matchedIds = matches.stream()
+                .map(match -> match.product().productId())
+                .toList();
+        List<ProductSearchIndex.TextMatch> filtered = matches.stream()
+                .filter(match -> filter.matches(match.product()))
+                .toList();
+
+        boolean ascending = sortDirection == null || sortDirection.equalsIgnoreCase("asc");
+        return new ProductDto.FacetedSearchResponse(
+                searchProductsByRelevance(filtered, sortBy, ascending, page, size),
+                productFacetIndex.count(matchedIds, categoryId, minPrice, maxPrice, brand)
+        );
+    }
     
     // Update stock quantity
     @Transactional
@@ -239,7 +402,7 @@ public class ProductService {
                 InventoryLog.InventoryChangeType.RESTOCK : InventoryLog.InventoryChangeType.SALE;
         
         // Log inventory change
-        logInventoryChange(
+        inventoryJournal.record(
             product,
             oldStock,
             newStock,
@@ -247,17 +410,9 @@ public class ProductService {
             changeType
         );
         
-        // MySQL trigger will handle stock alerts automatically
-        // We can create one manually too if not using the trigger
-        if (newStock <= product.getLowStockThreshold()) {
-            StockAlert alert = StockAlert.builder()
-                    .product(product)
-                    .currentStock(newStock)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            
-            stockAlertRepository.save(alert);
-        }
+        domainEventOutbox.append(new StockChangedEvent(product.getProductId(), request.quantityChange()));
+
+        eventPublisher.publishEvent(ProductChangedEvent.saved(updatedProduct));
         
         return mapToProductResponse(updatedProduct);
     }
@@ -286,7 +441,98 @@ public class ProductService {
             logs = inventoryLogRepository.findByProductProductId(productId, pageable);
         }
         
-        return logs.map(log -> new InventoryLogDto.InventoryLogResponse(
+        return logs.map(this::mapToInventoryLogResponse);
+    }
+    
+    // Keyset (seek) pagination over a product's inventory logs, newest first
+    public CursorPage<InventoryLogDto.InventoryLogResponse> seekProductInventoryLogs(
+            UUID productId,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            String cursor,
+            int size
+    ) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found");
+        }
+
+        Map<String, Function<String, ?>> keyParsers = new LinkedHashMap<>();
+        keyParsers.put("timestamp", LocalDateTime::parse);
+        keyParsers.put("logId", UUID::fromString);
+        ScrollPosition position = SeekCursor.position(cursor, keyParsers);
+
+        Specification<InventoryLog> filter = (root, query, cb) -> {
+            Predicate predicate = cb.equal(root.get("product").get("productId"), productId);
+            if (startDate != null && endDate != null) {
+                predicate = cb.and(predicate, cb.between(root.get("timestamp"), startDate, endDate));
+            }
+            return predicate;
+        };
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "timestamp", "logId");
+        Window<InventoryLog> window = inventoryLogRepository.findBy(filter,
+                query -> query.sortBy(sort).limit(size).scroll(position));
+
+        return new CursorPage<>(
+                window.getContent().stream().map(this::mapToInventoryLogResponse).toList(),
+                window.size(),
+                window.hasNext(),
+                SeekCursor.next(window)
+        );
+    }
+    
+    // Helper methods
+    // The in-memory search matches the same category subtree as the closure-table queries;
+    // an unknown category matches nothing
+    private ProductSearchIndex.SearchFilter searchFilter(UUID categoryId, BigDecimal minPrice, BigDecimal maxPrice, String brand) {
+        Set<UUID> categoryIds = categoryId == null ? null : categoryTree.find(categoryId)
+                .map(CategoryTree.Node::subtree)
+                .orElse(Set.of());
+        return new ProductSearchIndex.SearchFilter(categoryIds, minPrice, maxPrice, brand);
+    }
+
+    private Page<ProductDto.ProductResponse> searchProductsByRelevance(
+            List<ProductSearchIndex.TextMatch> rankedMatches,
+            String sortBy,
+            boolean ascending,
+            int page,
+            int size
+    ) {
+        List<ProductSearchIndex.TextMatch> matches = new ArrayList<>(rankedMatches);
+
+        // Matches come back by descending score; re-sort only when another order was requested
+        Comparator<ProductSearchIndex.IndexedProduct> order = switch (sortBy == null ? SORT_BY_RELEVANCE : sortBy) {
+            case "name" -> Comparator.comparing(ProductSearchIndex.IndexedProduct::name, String.CASE_INSENSITIVE_ORDER);
+            case "price" -> Comparator.comparing(ProductSearchIndex.IndexedProduct::price);
+            case "createdAt" -> Comparator.comparing(ProductSearchIndex.IndexedProduct::createdAt,
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            default -> null;
+        };
+        if (order != null) {
+            matches.sort(Comparator.comparing(ProductSearchIndex.TextMatch::product, ascending ? order : order.reversed()));
+        }
+
+        Pageable pageable = PageRequest.of(page, size);
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + size, matches.size());
+        List<UUID> pageIds = matches.subList(from, to).stream()
+                .map(match -> match.product().productId())
+                .toList();
+
+        // Only the requested page is loaded from the database
+        Map<UUID, Product> loaded = productRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        List<ProductDto.ProductResponse> content = pageIds.stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToProductResponse)
+                .toList();
+
+        return new PageImpl<>(content, pageable, matches.size());
+    }
+
+    private InventoryLogDto.InventoryLogResponse mapToInventoryLogResponse(InventoryLog log) {
+        return new InventoryLogDto.InventoryLogResponse(
             log.getLogId(),
             log.getProduct().getProductId(),
             log.getProduct().getName(),
@@ -295,43 +541,9 @@ public class ProductService {
             log.getChangeType(),
             log.getChangedBy() != null ? log.getChangedBy().getFullName() : "System",
             log.getTimestamp()
-        ));
-    }
-    
-    // Helper methods
-    private void logInventoryChange(
-            Product product, 
-            int oldQuantity, 
-            int newQuantity,
-            User changedBy,
-            InventoryLog.InventoryChangeType changeType
-    ) {
-        InventoryLog log = InventoryLog.builder()
-                .product(product)
-                .oldQuantity(oldQuantity)
-                .newQuantity(newQuantity)
-                .changeType(changeType)
-                .changedBy(changedBy)
-                .timestamp(LocalDateTime.now())
-                .build();
-        
-        inventoryLogRepository.save(log);
-    }
-    
-    private void checkLowStockLevel(Product product) {
-        if (product.getStockQuantity() <= product.getLowStockThreshold()) {
-            // Instead of checking for unresolved alerts, create a new alert
-            // The trigger in database will handle this in MySQL
-            StockAlert alert = StockAlert.builder()
-                    .product(product)
-                    .currentStock(product.getStockQuantity())
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            
-            stockAlertRepository.save(alert);
-        }
+        );
     }
-    
+
     private ProductDto.ProductResponse mapToProductResponse(Product product) {
         return new ProductDto.ProductResponse(
                 product.getProductId(),
@@ -0,0 +1,259 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.dto.SuggestDto.SuggestionResponse;
+import com.zerox.csm.dto.SuggestDto.SuggestionType;
+import com.zerox.csm.event.CategoryChangedEvent;
+import com.zerox.csm.event.ProductChangedEvent;
+import com.zerox.csm.model.Category;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.repository.CategoryRepository;
+import com.zerox.csm.repository.OrderRepository;
+import com.zerox.csm.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Suggest-as-you-type over product names, brands, SKUs and category names.
+// Lookups only touch an immutable trie snapshot; catalog changes mark it dirty
+// and a background rebuild swaps in a new snapshot at most once per second.
+// The source maps the trie is built from change only under this object's lock, and a reload
+// from the database builds fresh maps and swaps them in whole, replaying any events that
+// arrived while it was reading, so neither side can lose the other's changes.
+@Component
+@RequiredArgsConstructor
+public class ProductSuggestIndex {
+
+    // Each trie node keeps as many completions as a request may ask for
+    private static final int MAX_LIMIT = 20;
+    private static final int MAX_EDITS = 2;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final OrderRepository orderRepository;
+
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    // Serializes reloads; the source maps themselves are guarded by this
+    private final Object refreshLock = new Object();
+
+    // Guarded by this
+    private Sources sources = new Sources(new HashMap<>(), new HashMap<>(), Map.of());
+    // Changes made while a reload is reading the database, replayed onto its result; null when no reload runs
+    private List<Consumer<Sources>> changesDuringRefresh;
+
+    private volatile Snapshot snapshot = new Snapshot(SuggestTrie.build(List.of(), List.of(), new double[0], MAX_LIMIT), List.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshFromDatabase() {
+        synchronized (refreshLock) {
+            synchronized (this) {
+                changesDuringRefresh = new ArrayList<>();
+            }
+            try {
+                Sources loaded = load();
+                synchronized (this) {
+                    changesDuringRefresh.forEach(change -> change.accept(loaded));
+                    sources = loaded;
+                    rebuild();
+                }
+            } finally {
+                synchronized (this) {
+                    changesDuringRefresh = null;
+                }
+            }
+        }
+    }
+
+    private Sources load() {
+        Map<UUID, Long> sold = new HashMap<>();
+        for (Object[] row : orderRepository.sumUnitsSoldByProduct()) {
+            sold.put((UUID) row[0], ((Number) row[1]).longValue());
+        }
+
+        Map<UUID, SuggestSource> catalog = new HashMap<>();
+        for (Product product : productRepository.findAllActiveWithCategory()) {
+            catalog.put(product.getProductId(), toSource(product));
+        }
+
+        Map<UUID, String> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.put(category.getCategoryId(), category.getName());
+        }
+
+        return new Sources(catalog, categories, Map.copyOf(sold));
+    }
+
+    // Popularity comes from order history, so reload it periodically
+    @Scheduled(
+            initialDelayString = "${app.search.suggest.refresh-interval:PT30M}",
+            fixedDelayString = "${app.search.suggest.refresh-interval:PT30M}"
+    )
+    public void refreshPopularity() {
+        refreshFromDatabase();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        if (event.isDeleted() || !Boolean.TRUE.equals(product.getActive())) {
+            apply(target -> target.products().remove(product.getProductId()));
+        } else {
+            SuggestSource source = toSource(product);
+            apply(target -> target.products().put(product.getProductId(), source));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Map<UUID, String> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.put(category.getCategoryId(), category.getName());
+        }
+        apply(target -> {
+            target.categoryNames().clear();
+            target.categoryNames().putAll(categories);
+        });
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void rebuildIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            rebuild();
+        }
+    }
+
+    public List<SuggestionResponse> suggest(String query, int limit, Integer fuzziness) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        int maxEdits = fuzziness != null
+                ? Math.max(0, Math.min(MAX_EDITS, fuzziness))
+                : normalized.length() < 3 ? 0 : normalized.length() < 6 ? 1 : 2;
+
+        Snapshot current = snapshot;
+        Map<Integer, Integer> matches = current.trie().lookup(normalized, maxEdits);
+
+        // Each edit costs a third of the popularity weight, so exact prefixes win ties
+        return matches.entrySet().stream()
+                .map(match -> {
+                    SuggestEntry entry = current.entries().get(match.getKey());
+                    double score = current.trie().weight(match.getKey()) / (1 + 2.0 * match.getValue());
+                    return new SuggestionResponse(entry.text(), entry.type(), entry.productId(),
+                            entry.categoryId(), match.getValue(), score);
+                })
+                .sorted(Comparator.comparingDouble(SuggestionResponse::score).reversed()
+                        .thenComparing(SuggestionResponse::text))
+                .limit(Math.max(1, Math.min(MAX_LIMIT, limit)))
+                .toList();
+    }
+
+    // Helper methods
+    private synchronized void apply(Consumer<Sources> change) {
+        change.accept(sources);
+        if (changesDuringRefresh != null) {
+            changesDuringRefresh.add(change);
+        }
+        dirty.set(true);
+    }
+
+    private synchronized void rebuild() {
+        Map<UUID, SuggestSource> products = sources.products();
+        Map<UUID, String> categoryNames = sources.categoryNames();
+        Map<UUID, Long> unitsSold = sources.unitsSold();
+        List<SuggestEntry> entries = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<Integer> entryIds = new ArrayList<>();
+
+        Map<String, SuggestEntry> brands = new HashMap<>();
+        Map<UUID, Double> categoryWeights = new HashMap<>();
+
+        for (SuggestSource product : products.values()) {
+            double weight = 1 + unitsSold.getOrDefault(product.productId(), 0L);
+
+            addEntry(entries, keys, entryIds,
+                    new SuggestEntry(product.name(), SuggestionType.PRODUCT, product.productId(), product.categoryId(), weight),
+                    wordSuffixes(normalize(product.name())));
+            addEntry(entries, keys, entryIds,
+                    new SuggestEntry(product.sku(), SuggestionType.SKU, product.productId(), product.categoryId(), weight),
+                    List.of(normalize(product.sku())));
+
+            if (product.brand() != null && !product.brand().isBlank()) {
+                brands.merge(normalize(product.brand()),
+                        new SuggestEntry(product.brand(), SuggestionType.BRAND, null, null, weight),
+                        (existing, added) -> new SuggestEntry(existing.text(), SuggestionType.BRAND, null, null,
+                                existing.weight() + added.weight()));
+            }
+            if (product.categoryId() != null) {
+                categoryWeights.merge(product.categoryId(), weight, Double::sum);
+            }
+        }
+
+        brands.forEach((key, brand) -> addEntry(entries, keys, entryIds, brand, List.of(key)));
+        categoryNames.forEach((categoryId, name) -> addEntry(entries, keys, entryIds,
+                new SuggestEntry(name, SuggestionType.CATEGORY, null, categoryId,
+                        1 + categoryWeights.getOrDefault(categoryId, 0.0)),
+                wordSuffixes(normalize(name))));
+
+        double[] weights = entries.stream().mapToDouble(SuggestEntry::weight).toArray();
+        snapshot = new Snapshot(SuggestTrie.build(keys, entryIds, weights, MAX_LIMIT), List.copyOf(entries));
+    }
+
+    private void addEntry(List<SuggestEntry> entries, List<String> keys, List<Integer> entryIds,
+                          SuggestEntry entry, List<String> entryKeys) {
+        int entryId = entries.size();
+        entries.add(entry);
+        for (String key : entryKeys) {
+            if (!key.isEmpty()) {
+                keys.add(key);
+                entryIds.add(entryId);
+            }
+        }
+    }
+
+    // "dell xps 13" -> ["dell xps 13", "xps 13", "13"] so completions also start mid-name
+    private List<String> wordSuffixes(String normalized) {
+        List<String> suffixes = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return suffixes;
+        }
+        suffixes.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            suffixes.add(normalized.substring(i + 1));
+        }
+        return suffixes;
+    }
+
+    private String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private SuggestSource toSource(Product product) {
+        return new SuggestSource(
+                product.getProductId(),
+                product.getName(),
+                product.getSku(),
+                product.getBrand(),
+                product.getCategory() != null ? product.getCategory().getCategoryId() : null
+        );
+    }
+
+    private record SuggestSource(UUID productId, String name, String sku, String brand, UUID categoryId) {}
+
+    private record SuggestEntry(String text, SuggestionType type, UUID productId, UUID categoryId, double weight) {}
+
+    private record Snapshot(SuggestTrie trie, List<SuggestEntry> entries) {}
+
+    // products and categoryNames are mutable, but only touched while holding the index's lock
+    private record Sources(Map<UUID, SuggestSource> products, Map<UUID, String> categoryNames, Map<UUID, Long> unitsSold) {}
+}
@@ -3,6 +3,7 @@ package com.zerox.csm.service;
 import com.zerox.csm.dto.ReturnDto.ReturnCreateRequest;
 import com.zerox.csm.dto.ReturnDto.ReturnResponse;
 import com.zerox.csm.dto.ReturnDto.ReturnUpdateRequest;
+import com.zerox.csm.event.ReturnRefundedEvent;
 import com.zerox.csm.exception.ResourceNotFoundException;
 import com.zerox.csm.model.Order;
 import com.zerox.csm.model.Return;
@@ -23,6 +24,7 @@ public class ReturnService {
 
     private final ReturnRepository returnRepository;
     private final OrderRepository orderRepository;
+    private final DomainEventOutbox domainEventOutbox;
     
     @Transactional
     public ReturnResponse createReturn(ReturnCreateRequest request) {
@@ -67,6 +69,7 @@ public class ReturnService {
         Return returnObj = returnRepository.findById(returnId)
                 .orElseThrow(() -> new ResourceNotFoundException("Return not found"));
         
+        Return.Status previousStatus = returnObj.getStatus();
         returnObj.setStatus(request.status());
         
         // If the status is being updated to REFUNDED, set the processed date and refund amount
@@ -75,7 +78,16 @@ public class ReturnService {
             returnObj.setRefundAmount(request.refundAmount());
         }
         
-        return mapToReturnResponse(returnRepository.save(returnObj));
+        Return savedReturn = returnRepository.save(returnObj);
+        if (request.status() == Return.Status.REFUNDED && previousStatus != Return.Status.REFUNDED) {
+            domainEventOutbox.append(new ReturnRefundedEvent(
+                    savedReturn.getReturnId(),
+                    savedReturn.getOrder().getOrderId(),
+                    savedReturn.getRefundAmount(),
+                    savedReturn.getProcessedAt()
+            ));
+        }
+        return mapToReturnResponse(savedReturn);
     }
     
     private ReturnResponse mapToReturnResponse(Return returnObj) {
@@ -1,6 +1,7 @@
 package com.zerox.csm.service;
 
 import com.zerox.csm.dto.RewardPointsDto.*;
+import com.zerox.csm.event.OrderDeliveredEvent;
 import com.zerox.csm.exception.ResourceNotFoundException;
 import com.zerox.csm.exception.ValidationException;
 import com.zerox.csm.model.*;
@@ -9,6 +10,7 @@ import com.zerox.csm.repository.OrderRepository;
 import com.zerox.csm.repository.RewardPointsRepository;
 import com.zerox.csm.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +33,20 @@ public class RewardPointsService {
 
     private static final int POINTS_EXPIRATION_MONTHS = 12;
 
+    /**
+     * Award points as soon as an order is delivered; already awarded orders are skipped
+     */
+    @EventListener
+    @Transactional
+    public void onOrderDelivered(OrderDeliveredEvent event) {
+        Order order = orderRepository.findById(event.orderId()).orElse(null);
+        if (order == null || order.getStatus() != OrderStatus.DELIVERED
+                || rewardPointsRepository.findByOrderOrderId(event.orderId()).isPresent()) {
+            return;
+        }
+        generatePointsForOrder(event.orderId());
+    }
+
     /**
      * Calculate and generate reward points for a completed order
      */
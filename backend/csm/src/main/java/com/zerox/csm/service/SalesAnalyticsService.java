@@ -0,0 +1,411 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.dto.SalesDto;
+import com.zerox.csm.event.OrderCancelledEvent;
+import com.zerox.csm.event.OrderPlacedEvent;
+import com.zerox.csm.event.ReturnRefundedEvent;
+import com.zerox.csm.model.Category;
+import com.zerox.csm.model.Order;
+import com.zerox.csm.model.OrderItem;
+import com.zerox.csm.model.OrderStatus;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.model.Return;
+import com.zerox.csm.model.SalesDailyRollup;
+import com.zerox.csm.model.SalesDailyRollup.Dimension;
+import com.zerox.csm.model.SalesPosting;
+import com.zerox.csm.repository.CategoryRepository;
+import com.zerox.csm.repository.OrderRepository;
+import com.zerox.csm.repository.ProductRepository;
+import com.zerox.csm.repository.ReturnRepository;
+import com.zerox.csm.repository.SalesDailyRollupRepository;
+import com.zerox.csm.repository.SalesPostingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Keeps daily sales rollups per product, category, brand and coupon up to date from order events.
+// Placed orders add to the day the order was placed, cancellations take the same amounts off that day
+// again, and refunds are booked on the day they were paid out. The coupon's order discount is spread
+// over the order lines by their share of the gross amount.
+@Service
+@RequiredArgsConstructor
+public class SalesAnalyticsService {
+
+    private static final String TOTAL_KEY = "all";
+    private static final String UNASSIGNED_KEY = "unassigned";
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final SalesDailyRollupRepository rollupRepository;
+    private final SalesPostingRepository postingRepository;
+    private final OrderRepository orderRepository;
+    private final ReturnRepository returnRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final DomainEventRelay domainEventRelay;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @EventListener
+    @Transactional
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!post(event.orderId(), SalesPosting.Kind.ORDER_PLACED)) {
+            return;
+        }
+        // Cancelled before the placement was rolled up: nothing to add
+        if (postingRepository.existsBySourceIdAndKind(event.orderId(), SalesPosting.Kind.ORDER_CANCELLED)) {
+            return;
+        }
+        orderRepository.findById(event.orderId()).ifPresent(order -> applyOrder(order, 1));
+    }
+
+    @EventListener
+    @Transactional
+    public void onOrderCancelled(OrderCancelledEvent event) {
+        if (!post(event.orderId(), SalesPosting.Kind.ORDER_CANCELLED)) {
+            return;
+        }
+        if (!postingRepository.existsBySourceIdAndKind(event.orderId(), SalesPosting.Kind.ORDER_PLACED)) {
+            return;
+        }
+        orderRepository.findById(event.orderId()).ifPresent(order -> applyOrder(order, -1));
+    }
+
+    @EventListener
+    @Transactional
+    public void onReturnRefunded(ReturnRefundedEvent event) {
+        if (event.refundAmount() == null || !post(event.returnId(), SalesPosting.Kind.RETURN_REFUNDED)) {
+            return;
+        }
+        LocalDate day = (event.refundedAt() != null ? event.refundedAt() : LocalDateTime.now()).toLocalDate();
+        orderRepository.findById(event.orderId()).ifPresent(order -> applyRefund(order, event.refundAmount(), day));
+    }
+
+    // Recomputes every rollup from the orders and refunded returns in the database, for the first
+    // deployment and for repairs. Event delivery is paused meanwhile, so no subscriber posts an order
+    // between the wipe and its page; the events held back are delivered afterwards and are skipped or
+    // applied by their postings like any other. Each page commits on its own and the persistence context
+    // is cleared after it, so a long history neither holds one huge transaction nor every order in memory.
+    // Returns false if event delivery is already paused, e.g. by a rebuild in progress.
+    public boolean rebuild() {
+        return domainEventRelay.runPaused(() -> {
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.deleteAllRollups();
+                postingRepository.deleteAllPostings();
+            });
+
+            PageRequest pageRequest = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("createdAt", "orderId"));
+            boolean hasNext;
+            do {
+                PageRequest current = pageRequest;
+                hasNext = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    Page<Order> page = orderRepository.findAll(current);
+                    for (Order order : page.getContent()) {
+                        post(order.getOrderId(), SalesPosting.Kind.ORDER_PLACED);
+                        if (order.getStatus() == OrderStatus.CANCELLED) {
+                            post(order.getOrderId(), SalesPosting.Kind.ORDER_CANCELLED);
+                        } else {
+                            applyOrder(order, 1);
+                        }
+                    }
+                    flushAndClear();
+                    return page.hasNext();
+                }));
+                pageRequest = pageRequest.next();
+            } while (hasNext);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Return returned : returnRepository.findByStatus(Return.Status.REFUNDED)) {
+                    if (returned.getRefundAmount() != null && post(returned.getReturnId(), SalesPosting.Kind.RETURN_REFUNDED)) {
+                        LocalDateTime refundedAt = returned.getProcessedAt() != null ? returned.getProcessedAt() : LocalDateTime.now();
+                        applyRefund(returned.getOrder(), returned.getRefundAmount(), refundedAt.toLocalDate());
+                    }
+                }
+                flushAndClear();
+            });
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public SalesDto.SalesSummaryResponse getSummary(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        List<SalesDto.SalesAggregateRow> rows = rollupRepository.aggregate(Dimension.TOTAL, from, to, PageRequest.of(0, 1));
+        if (rows.isEmpty()) {
+            return new SalesDto.SalesSummaryResponse(from, to, 0, 0,
+                    BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+        SalesDto.SalesAggregateRow row = rows.get(0);
+        return new SalesDto.SalesSummaryResponse(
+                from,
+                to,
+                row.units(),
+                row.orderCount(),
+                row.grossAmount(),
+                row.discountAmount(),
+                row.netAmount(),
+                row.refundedAmount()
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesDto.SalesDailyResponse> getDailySeries(Dimension dimension, String key, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        String dimensionKey = dimension == Dimension.TOTAL ? TOTAL_KEY : key;
+        if (dimensionKey == null || dimensionKey.isBlank()) {
+            throw new IllegalArgumentException("A key is required for the " + dimension.name().toLowerCase() + " dimension");
+        }
+        return rollupRepository.findSeries(dimension, dimensionKey, from, to).stream()
+                .map(rollup -> new SalesDto.SalesDailyResponse(
+                        rollup.getId().getDay(),
+                        rollup.getUnits(),
+                        rollup.getOrderCount(),
+                        rollup.getGrossAmount(),
+                        rollup.getDiscountAmount(),
+                        rollup.getNetAmount(),
+                        rollup.getRefundedAmount()
+                ))
+                .collect(Collectors.toList());
+    }
+
+    // Top entries of a dimension by net sales over the range
+    @Transactional(readOnly = true)
+    public List<SalesDto.SalesAggregateResponse> getTop(Dimension dimension, LocalDate from, LocalDate to, int limit) {
+        validateRange(from, to);
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("Limit must be between 1 and 1000");
+        }
+        List<SalesDto.SalesAggregateRow> rows = rollupRepository.aggregate(dimension, from, to, PageRequest.of(0, limit));
+        Map<String, String> labels = labels(dimension, rows);
+
+        return rows.stream()
+                .map(row -> new SalesDto.SalesAggregateResponse(
+                        row.key(),
+                        labels.getOrDefault(row.key(), row.key()),
+                        row.units(),
+                        row.orderCount(),
+                        row.grossAmount(),
+                        row.discountAmount(),
+                        row.netAmount(),
+                        row.refundedAmount()
+                ))
+                .collect(Collectors.toList());
+    }
+
+    // The request's persistence context outlives these transactions (open-in-view), so it is emptied by hand
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Returns false if this event was already posted
+    private boolean post(UUID sourceId, SalesPosting.Kind kind) {
+        if (postingRepository.existsBySourceIdAndKind(sourceId, kind)) {
+            return false;
+        }
+        postingRepository.save(SalesPosting.builder()
+                .sourceId(sourceId)
+                .kind(kind)
+                .postedAt(LocalDateTime.now())
+                .build());
+        return true;
+    }
+
+    private void applyOrder(Order order, int sign) {
+        LocalDate day = order.getCreatedAt() != null ? order.getCreatedAt().toLocalDate() : LocalDate.now();
+        BigDecimal orderDiscount = order.getDiscountAmount() != null ? order.getDiscountAmount() : BigDecimal.ZERO;
+        List<Line> lines = lines(order, orderDiscount);
+
+        Map<SalesDailyRollup.Key, Delta> deltas = new LinkedHashMap<>();
+        Delta total = delta(deltas, day, Dimension.TOTAL, TOTAL_KEY);
+        Delta coupon = order.getCouponCode() != null && !order.getCouponCode().isBlank()
+                ? delta(deltas, day, Dimension.COUPON, order.getCouponCode())
+                : null;
+
+        for (Line line : lines) {
+            Product product = line.item().getProduct();
+            for (Delta target : new Delta[] {
+                    delta(deltas, day, Dimension.PRODUCT, product.getProductId().toString()),
+                    delta(deltas, day, Dimension.CATEGORY, categoryKey(product)),
+                    delta(deltas, day, Dimension.BRAND, brandKey(product)),
+                    total,
+                    coupon
+            }) {
+                if (target != null) {
+                    target.units += line.item().getQuantity();
+                    target.gross = target.gross.add(line.gross());
+                    target.discount = target.discount.add(line.discount());
+                }
+            }
+        }
+
+        // Each dimension entry counts the order once, however many of its lines it covers
+        for (Delta delta : deltas.values()) {
+            delta.orders = 1;
+            delta.scale(sign);
+        }
+        write(deltas);
+    }
+
+    private void applyRefund(Order order, BigDecimal refundAmount, LocalDate day) {
+        BigDecimal orderDiscount = order.getDiscountAmount() != null ? order.getDiscountAmount() : BigDecimal.ZERO;
+        List<Line> lines = lines(order, orderDiscount);
+        BigDecimal net = lines.stream().map(Line::net).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Map<SalesDailyRollup.Key, Delta> deltas = new LinkedHashMap<>();
+        delta(deltas, day, Dimension.TOTAL, TOTAL_KEY).refunded = refundAmount;
+        if (order.getCouponCode() != null && !order.getCouponCode().isBlank()) {
+            delta(deltas, day, Dimension.COUPON, order.getCouponCode()).refunded = refundAmount;
+        }
+
+        // Returns are not itemised, so the refund is spread over the lines by their share of the net amount
+        List<BigDecimal> shares = allocate(refundAmount, lines.stream().map(Line::net).toList(), net);
+        for (int i = 0; i < lines.size(); i++) {
+            Product product = lines.get(i).item().getProduct();
+            BigDecimal share = shares.get(i);
+            delta(deltas, day, Dimension.PRODUCT, product.getProductId().toString()).addRefund(share);
+            delta(deltas, day, Dimension.CATEGORY, categoryKey(product)).addRefund(share);
+            delta(deltas, day, Dimension.BRAND, brandKey(product)).addRefund(share);
+        }
+        write(deltas);
+    }
+
+    private void write(Map<SalesDailyRollup.Key, Delta> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((key, delta) -> rollupRepository.upsert(
+                key.getDay(),
+                key.getDimension().name(),
+                key.getDimensionKey(),
+                delta.units,
+                delta.orders,
+                delta.gross,
+                delta.discount,
+                delta.gross.subtract(delta.discount),
+                delta.refunded,
+                now
+        ));
+    }
+
+    private List<Line> lines(Order order, BigDecimal orderDiscount) {
+        List<OrderItem> items = order.getItems().stream()
+                .filter(item -> item.getProduct() != null && item.getQuantity() != null && item.getPriceAtPurchase() != null)
+                .toList();
+        List<BigDecimal> grosses = items.stream()
+                .map(item -> item.getPriceAtPurchase().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .toList();
+        BigDecimal totalGross = grosses.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<BigDecimal> discounts = allocate(orderDiscount, grosses, totalGross);
+
+        List<Line> lines = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            lines.add(new Line(items.get(i), grosses.get(i), discounts.get(i)));
+        }
+        return lines;
+    }
+
+    // Splits amount by weight; the last part takes the rounding remainder so the parts add up exactly
+    private List<BigDecimal> allocate(BigDecimal amount, List<BigDecimal> weights, BigDecimal totalWeight) {
+        List<BigDecimal> parts = new ArrayList<>(weights.size());
+        BigDecimal remaining = amount;
+        for (int i = 0; i < weights.size(); i++) {
+            BigDecimal part;
+            if (i == weights.size() - 1) {
+                part = remaining;
+            } else if (totalWeight.signum() == 0) {
+                part = BigDecimal.ZERO;
+            } else {
+                part = amount.multiply(weights.get(i)).divide(totalWeight, 2, RoundingMode.HALF_UP);
+            }
+            parts.add(part);
+            remaining = remaining.subtract(part);
+        }
+        return parts;
+    }
+
+    // Products and categories are keyed by id; brands and coupons are their own label
+    private Map<String, String> labels(Dimension dimension, List<SalesDto.SalesAggregateRow> rows) {
+        if (dimension != Dimension.PRODUCT && dimension != Dimension.CATEGORY) {
+            return Map.of();
+        }
+        List<UUID> ids = rows.stream()
+                .map(SalesDto.SalesAggregateRow::key)
+                .filter(key -> !UNASSIGNED_KEY.equals(key))
+                .map(UUID::fromString)
+                .toList();
+        if (dimension == Dimension.PRODUCT) {
+            return productRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(product -> product.getProductId().toString(), Product::getName));
+        }
+        return categoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(category -> category.getCategoryId().toString(), Category::getName));
+    }
+
+    private String categoryKey(Product product) {
+        return product.getCategory() != null ? product.getCategory().getCategoryId().toString() : UNASSIGNED_KEY;
+    }
+
+    private String brandKey(Product product) {
+        if (product.getBrand() == null || product.getBrand().isBlank()) {
+            return UNASSIGNED_KEY;
+        }
+        String brand = product.getBrand().trim();
+        return brand.length() > 100 ? brand.substring(0, 100) : brand;
+    }
+
+    private Delta delta(Map<SalesDailyRollup.Key, Delta> deltas, LocalDate day, Dimension dimension, String key) {
+        return deltas.computeIfAbsent(new SalesDailyRollup.Key(day, dimension, key), k -> new Delta());
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Both from and to dates are required");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The from date must not be after the to date");
+        }
+    }
+
+    private record Line(OrderItem item, BigDecimal gross, BigDecimal discount) {
+        BigDecimal net() {
+            return gross.subtract(discount);
+        }
+    }
+
+    private static class Delta {
+        private long units;
+        private long orders;
+        private BigDecimal gross = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private BigDecimal refunded = BigDecimal.ZERO;
+
+        void addRefund(BigDecimal amount) {
+            refunded = refunded.add(amount);
+        }
+
+        void scale(int sign) {
+            units *= sign;
+            orders *= sign;
+            gross = gross.multiply(BigDecimal.valueOf(sign));
+            discount = discount.multiply(BigDecimal.valueOf(sign));
+            refunded = refunded.multiply(BigDecimal.valueOf(sign));
+        }
+    }
+}
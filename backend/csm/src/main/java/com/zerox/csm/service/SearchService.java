@@ -17,6 +17,9 @@ public class SearchService {
     @Autowired
     private SearchRepository searchRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
     public List<SearchDto> searchProducts(String keyword) {
         List<String> terms = Arrays.stream(keyword.trim().toLowerCase().split("\\s+"))
                 .filter(term -> !term.isEmpty())
@@ -26,6 +29,21 @@ public class SearchService {
         if (terms.isEmpty()) {
             return Collections.emptyList();
         }
+
+        // Answer from the in-memory index once it is built
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.searchKeywords(terms).stream()
+                    .map(match -> new SearchDto(
+                            match.product().productId().toString(),
+                            match.score(),
+                            match.product().name(),
+                            match.product().price(),
+                            match.product().imageUrl()
+                    ))
+                    .collect(Collectors.toList());
+        }
+
+        // Fall back to the database while the index is warming up
         List<Object[]> results = searchRepository.findProductsByKeywordMatches(terms);
         if (results.isEmpty()) {
             return Collections.emptyList();
@@ -0,0 +1,66 @@
+package com.zerox.csm.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Opaque continuation tokens for keyset pagination.
+// A token carries the sort key values of the last row served, e.g. name and productId.
+final class SeekCursor {
+
+    private SeekCursor() {
+    }
+
+    static String next(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+
+        StringBuilder token = new StringBuilder();
+        position.getKeys().forEach((key, value) -> {
+            if (!token.isEmpty()) {
+                token.append('&');
+            }
+            token.append(key).append('=')
+                    .append(URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8));
+        });
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // keyParsers lists the expected sort keys in order; a token built for another sort is rejected
+    static ScrollPosition position(String cursor, Map<String, Function<String, ?>> keyParsers) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String pair : token.split("&")) {
+                int separator = pair.indexOf('=');
+                String key = pair.substring(0, separator);
+                Function<String, ?> parser = keyParsers.get(key);
+                if (parser == null) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                keys.put(key, parser.apply(URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8)));
+            }
+            if (!keys.keySet().equals(keyParsers.keySet())) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.dto.ProductDto;
+import com.zerox.csm.event.ProductChangedEvent;
+import com.zerox.csm.exception.ResourceNotFoundException;
+import com.zerox.csm.model.InventoryLog;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.model.id.UuidBytes;
+import com.zerox.csm.repository.ProductRepository;
+import com.zerox.csm.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Applies a batch of stock deltas, as sent by the warehouse scanners during stocktake, in one
+// transaction and a fixed number of statements however many items there are: one SELECT ... FOR
+// UPDATE for the current quantities, one conditional UPDATE for every product that can take its
+// change, and one multi-row insert of inventory logs through the InventoryJournal.
+// A product that is missing or would go below zero is reported and left alone; it does not fail the batch.
+@Service
+public class StockAdjustmentService {
+
+    private static final String APPLIED = "APPLIED";
+    private static final String NOT_FOUND = "NOT_FOUND";
+    private static final String INSUFFICIENT_STOCK = "INSUFFICIENT_STOCK";
+    private static final String INVALID = "INVALID";
+    private static final int UPDATE_CHUNK = 50;
+
+    private record Outcome(String status, Integer oldQuantity, Integer newQuantity) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryJournal inventoryJournal;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final StockAlertEngine stockAlertEngine;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockAdjustmentService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            InventoryJournal inventoryJournal,
+            ProductRepository productRepository,
+            UserRepository userRepository,
+            StockAlertEngine stockAlertEngine,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.inventoryJournal = inventoryJournal;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.stockAlertEngine = stockAlertEngine;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public ProductDto.BatchStockUpdateResponse adjustStock(ProductDto.BatchStockUpdateRequest request) {
+        if (request.changedById() != null && !userRepository.existsById(request.changedById())) {
+            throw new ResourceNotFoundException("User not found");
+        }
+
+        // Net change per product. Sorted by id so concurrent batches lock their rows in the same order.
+        Map<UUID, Integer> deltas = new TreeMap<>();
+        for (ProductDto.StockAdjustment item : request.items()) {
+            if (item.quantityChange() != 0) {
+                deltas.merge(item.productId(), item.quantityChange(), Math::addExact);
+            }
+        }
+        Map<UUID, Outcome> outcomes = deltas.isEmpty()
+                ? Map.of()
+                : transactionTemplate.execute(status -> apply(deltas, request.changedById()));
+
+        List<UUID> changed = new ArrayList<>();
+        outcomes.forEach((productId, outcome) -> {
+            if (APPLIED.equals(outcome.status()) && !outcome.oldQuantity().equals(outcome.newQuantity())) {
+                changed.add(productId);
+            }
+        });
+        refresh(changed);
+
+        List<ProductDto.StockAdjustmentResult> results = new ArrayList<>(request.items().size());
+        int applied = 0;
+        for (ProductDto.StockAdjustment item : request.items()) {
+            Outcome outcome = item.quantityChange() != 0
+                    ? outcomes.get(item.productId())
+                    : new Outcome(INVALID, null, null);
+            if (APPLIED.equals(outcome.status())) {
+                applied++;
+            }
+            results.add(new ProductDto.StockAdjustmentResult(
+                    item.productId(),
+                    item.quantityChange(),
+                    outcome.status(),
+                    outcome.oldQuantity(),
+                    outcome.newQuantity()
+            ));
+        }
+        return new ProductDto.BatchStockUpdateResponse(applied, results.size() - applied, results);
+    }
+
+    private Map<UUID, Outcome> apply(Map<UUID, Integer> deltas, UUID changedBy) {
+        List<UUID> ids = new ArrayList<>(deltas.keySet());
+        Map<UUID, Integer> current = new HashMap<>();
+        // The row locks keep the quantities read here valid until commit, so the logged old values are exact
+        jdbcTemplate.query(
+                "SELECT product_id, stock_quantity FROM products WHERE product_id IN (" + placeholders(ids.size()) + ") FOR UPDATE",
+                statement -> {
+                    int index = 1;
+                    for (UUID id : ids) {
+                        statement.setBytes(index++, UuidBytes.toBytes(id));
+                    }
+                },
+                resultSet -> {
+                    current.put(UuidBytes.fromBytes(resultSet.getBytes("product_id")), resultSet.getInt("stock_quantity"));
+                });
+
+        Map<UUID, Outcome> outcomes = new HashMap<>();
+        List<UUID> updates = new ArrayList<>();
+        for (UUID id : ids) {
+            Integer stock = current.get(id);
+            int delta = deltas.get(id);
+            // In long so a restock past Integer.MAX_VALUE is refused instead of wrapping around
+            long next = stock != null ? (long) stock + delta : 0;
+            if (stock == null) {
+                outcomes.put(id, new Outcome(NOT_FOUND, null, null));
+            } else if (next < 0) {
+                outcomes.put(id, new Outcome(INSUFFICIENT_STOCK, stock, stock));
+            } else if (next > Integer.MAX_VALUE) {
+                outcomes.put(id, new Outcome(INVALID, stock, stock));
+            } else {
+                outcomes.put(id, new Outcome(APPLIED, stock, (int) next));
+                if (delta != 0) {
+                    updates.add(id);
+                }
+            }
+        }
+        if (updates.isEmpty()) {
+            return outcomes;
+        }
+
+        // Set-based in chunks: the CASE is searched row by row, so one statement over the whole batch would cost n^2
+        for (int from = 0; from < updates.size(); from += UPDATE_CHUNK) {
+            List<UUID> chunk = updates.subList(from, Math.min(updates.size(), from + UPDATE_CHUNK));
+            int updated = jdbcTemplate.update(updateSql(chunk.size()), statement -> {
+                int index = 1;
+                for (int pass = 0; pass < 3; pass++) {
+                    for (UUID id : chunk) {
+                        statement.setBytes(index++, UuidBytes.toBytes(id));
+                        if (pass != 1) {
+                            statement.setInt(index++, deltas.get(id));
+                        }
+                    }
+                }
+            });
+            if (updated != chunk.size()) {
+                throw new IllegalStateException("Stock changed during the batch adjustment, expected "
+                        + chunk.size() + " rows but updated " + updated);
+            }
+        }
+
+        for (UUID id : updates) {
+            Outcome outcome = outcomes.get(id);
+            inventoryJournal.record(
+                    id,
+                    outcome.oldQuantity(),
+                    outcome.newQuantity(),
+                    changedBy,
+                    deltas.get(id) > 0 ? InventoryLog.InventoryChangeType.RESTOCK : InventoryLog.InventoryChangeType.SALE
+            );
+        }
+        return outcomes;
+    }
+
+    // Caches, search indexes and stock alerts follow with one product load for the whole batch
+    private void refresh(List<UUID> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Product> products = productRepository.findAllById(changed);
+        products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.saved(product)));
+        stockAlertEngine.evaluate(products);
+    }
+
+    // The guard repeats the check made on the locked rows as a safety net
+    private static String updateSql(int count) {
+        String cases = String.join(" ", Collections.nCopies(count, "WHEN ? THEN ?"));
+        return "UPDATE products SET stock_quantity = stock_quantity + CASE product_id " + cases + " END "
+                + "WHERE product_id IN (" + placeholders(count) + ") "
+                + "AND stock_quantity + CASE product_id " + cases + " END >= 0";
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,254 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.dto.ProductDto;
+import com.zerox.csm.event.StockChangedEvent;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.model.StockAlert;
+import com.zerox.csm.repository.ProductRepository;
+import com.zerox.csm.repository.StockAlertRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Low-stock alerts as a state machine per product, with the open alerts held in memory.
+// An alert opens when stock falls to the threshold and stays open, without further writes,
+// while stock moves around below it. It resolves only once stock has climbed past the
+// threshold plus a hysteresis margin and stayed there for the debounce window, so a product
+// hovering around its threshold does not flap. Only the open and resolve transitions touch
+// stock_alerts; the "currently low" list is served from memory.
+@Component
+public class StockAlertEngine {
+
+    // productName and sku are as of the last stock change; recoveringSince is set while stock
+    // is above the resolve level but the debounce window has not passed yet
+    private record AlertState(
+            UUID alertId,
+            UUID productId,
+            String productName,
+            String sku,
+            int stock,
+            Integer threshold,
+            LocalDateTime openedAt,
+            LocalDateTime recoveringSince
+    ) {
+    }
+
+    private final StockAlertRepository stockAlertRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate requiresNew;
+    private final Duration debounce;
+    private final double hysteresisRatio;
+    private final int hysteresisMin;
+    // Open alerts by product id
+    private final Map<UUID, AlertState> open = new ConcurrentHashMap<>();
+
+    public StockAlertEngine(
+            StockAlertRepository stockAlertRepository,
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.stock-alerts.debounce:PT5M}") Duration debounce,
+            @Value("${app.stock-alerts.hysteresis-ratio:0.2}") double hysteresisRatio,
+            @Value("${app.stock-alerts.hysteresis-min:1}") int hysteresisMin
+    ) {
+        this.stockAlertRepository = stockAlertRepository;
+        this.productRepository = productRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.debounce = debounce;
+        this.hysteresisRatio = hysteresisRatio;
+        this.hysteresisMin = hysteresisMin;
+    }
+
+    // Loads the open alerts and opens one for any product that went low while the engine was not watching
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Map<UUID, AlertState> loaded = requiresNew.execute(status -> {
+            int legacy = stockAlertRepository.resolveUnstated();
+            if (legacy > 0) {
+                System.out.println("Closed " + legacy + " stock alerts written before alerts had a state");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            Map<UUID, AlertState> states = new HashMap<>();
+            for (StockAlert alert : stockAlertRepository.findOpenWithProduct()) {
+                Product product = alert.getProduct();
+                if (states.containsKey(product.getProductId())) {
+                    resolve(alert, product.getStockQuantity(), now);
+                    continue;
+                }
+                states.put(product.getProductId(), new AlertState(
+                        alert.getAlertId(),
+                        product.getProductId(),
+                        product.getName(),
+                        product.getSku(),
+                        product.getStockQuantity(),
+                        product.getLowStockThreshold(),
+                        alert.getCreatedAt(),
+                        recovered(product) ? now : null
+                ));
+            }
+            for (Product product : productRepository.findAtOrBelowLowStockThreshold()) {
+                if (!states.containsKey(product.getProductId())) {
+                    states.put(product.getProductId(), openAlert(product, now));
+                }
+            }
+            return states;
+        });
+        open.clear();
+        open.putAll(loaded);
+        System.out.println("Stock alert engine loaded " + loaded.size() + " open alerts");
+    }
+
+    // Writes commit in a transaction of their own before the in-memory state changes, so memory
+    // never runs ahead of the table. A redelivered event finds the state already applied and writes nothing.
+    @EventListener
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        Product product = productRepository.findById(event.productId()).orElse(null);
+        if (product == null) {
+            open.remove(event.productId());
+            return;
+        }
+        evaluate(product);
+    }
+
+    // For bulk writers that change many products at once without going through the outbox
+    public synchronized void evaluate(Collection<Product> products) {
+        products.forEach(this::evaluate);
+    }
+
+    // Resolves alerts whose product has stayed above the resolve level for the whole debounce window
+    @Scheduled(fixedDelayString = "${app.stock-alerts.sweep-interval:PT30S}")
+    public synchronized void resolveRecovered() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(debounce);
+        for (AlertState state : List.copyOf(open.values())) {
+            if (state.recoveringSince() == null || state.recoveringSince().isAfter(cutoff)) {
+                continue;
+            }
+            boolean closed = Boolean.TRUE.equals(requiresNew.execute(status -> {
+                Product product = productRepository.findById(state.productId()).orElse(null);
+                // Stock is read again in case a change that took it back down has not been relayed yet
+                if (product != null && !recovered(product)) {
+                    return false;
+                }
+                stockAlertRepository.findById(state.alertId())
+                        .ifPresent(alert -> resolve(alert, product != null ? product.getStockQuantity() : state.stock(), LocalDateTime.now()));
+                return true;
+            }));
+            if (closed) {
+                open.remove(state.productId());
+            }
+        }
+    }
+
+    // Called when a product is deleted together with its alerts
+    public void forget(UUID productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    open.remove(productId);
+                }
+            });
+        } else {
+            open.remove(productId);
+        }
+    }
+
+    // Products with an open alert, lowest stock first
+    public List<ProductDto.LowStockResponse> lowStock() {
+        return open.values().stream()
+                .sorted(Comparator.comparingInt(AlertState::stock).thenComparing(AlertState::productName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .map(state -> new ProductDto.LowStockResponse(
+                        state.productId(),
+                        state.productName(),
+                        state.sku(),
+                        state.stock(),
+                        state.threshold(),
+                        state.openedAt(),
+                        state.recoveringSince() != null
+                ))
+                .toList();
+    }
+
+    private void evaluate(Product product) {
+        AlertState current = open.get(product.getProductId());
+        if (current == null) {
+            if (isLow(product)) {
+                open.put(product.getProductId(), requiresNew.execute(status -> openAlert(product, LocalDateTime.now())));
+            }
+            return;
+        }
+        LocalDateTime recoveringSince = null;
+        if (recovered(product)) {
+            recoveringSince = current.recoveringSince() != null ? current.recoveringSince() : LocalDateTime.now();
+        }
+        open.put(product.getProductId(), new AlertState(
+                current.alertId(),
+                product.getProductId(),
+                product.getName(),
+                product.getSku(),
+                product.getStockQuantity(),
+                product.getLowStockThreshold(),
+                current.openedAt(),
+                recoveringSince
+        ));
+    }
+
+    private AlertState openAlert(Product product, LocalDateTime now) {
+        StockAlert alert = stockAlertRepository.save(StockAlert.builder()
+                .product(product)
+                .currentStock(product.getStockQuantity())
+                .threshold(product.getLowStockThreshold())
+                .status(StockAlert.AlertStatus.OPEN)
+                .createdAt(now)
+                .build());
+        return new AlertState(
+                alert.getAlertId(),
+                product.getProductId(),
+                product.getName(),
+                product.getSku(),
+                product.getStockQuantity(),
+                product.getLowStockThreshold(),
+                now,
+                null
+        );
+    }
+
+    private void resolve(StockAlert alert, int stock, LocalDateTime now) {
+        alert.setStatus(StockAlert.AlertStatus.RESOLVED);
+        alert.setResolvedStock(stock);
+        alert.setResolvedAt(now);
+        stockAlertRepository.save(alert);
+    }
+
+    private boolean isLow(Product product) {
+        return product.getLowStockThreshold() != null && product.getStockQuantity() <= product.getLowStockThreshold();
+    }
+
+    // Between the threshold and the resolve level an open alert stays open and a closed one stays closed.
+    // A product whose threshold was cleared counts as recovered.
+    private boolean recovered(Product product) {
+        Integer threshold = product.getLowStockThreshold();
+        if (threshold == null) {
+            return true;
+        }
+        int margin = Math.max(hysteresisMin, (int) Math.ceil(threshold * hysteresisRatio));
+        return product.getStockQuantity() > threshold + margin;
+    }
+}
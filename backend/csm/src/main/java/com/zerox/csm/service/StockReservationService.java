@@ -0,0 +1,168 @@
+package com.zerox.csm.service;
+
+import com.zerox.csm.event.OrderCancelledEvent;
+import com.zerox.csm.event.OrderChangedEvent;
+import com.zerox.csm.event.ProductChangedEvent;
+import com.zerox.csm.event.StockChangedEvent;
+import com.zerox.csm.exception.InsufficientStockException;
+import com.zerox.csm.model.Order;
+import com.zerox.csm.model.OrderItem;
+import com.zerox.csm.model.OrderStatus;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.model.StockReservation;
+import com.zerox.csm.repository.OrderRepository;
+import com.zerox.csm.repository.ProductRepository;
+import com.zerox.csm.repository.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Holds stock for checkout without read-modify-write on products.stock_quantity.
+// Each product is decremented by a single conditional UPDATE, so the row lock lasts one statement
+// and concurrent checkouts on a hot SKU cannot oversell. Reservations are held until the order
+// moves on. Orders have no payment state yet, so expiring unpaid ones is opt-in, see releaseExpired.
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private static final int EXPIRY_BATCH_SIZE = 200;
+    private static final String CASH_ON_DELIVERY = "CASH_ON_DELIVERY";
+    private static final List<StockReservation.Status> HELD =
+            List.of(StockReservation.Status.ACTIVE, StockReservation.Status.COMMITTED);
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DomainEventOutbox domainEventOutbox;
+
+    @Value("${app.stock.reservation-ttl:PT30M}")
+    private Duration reservationTtl;
+
+    // Off by default: card and cash-on-delivery orders stay PENDING until staff move them on,
+    // so with nothing to tell an abandoned checkout from a real order the sweep would cancel both
+    @Value("${app.stock.reservation-expiry.enabled:false}")
+    private boolean expiryEnabled;
+
+    // A short product fails the whole checkout; the transaction rolls back the decrements already made
+    @Transactional
+    public void reserve(Order order) {
+        Map<UUID, Product> products = new HashMap<>();
+        // Sorted by id so two orders always lock the same rows in the same order
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            products.put(item.getProduct().getProductId(), item.getProduct());
+            quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> reservations = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (productRepository.decrementStock(productId, quantity) == 0) {
+                throw new InsufficientStockException(
+                        "Not enough stock for product: " + product.getName()
+                );
+            }
+            domainEventOutbox.append(new StockChangedEvent(productId, -quantity));
+
+            reservations.add(StockReservation.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(quantity)
+                    .status(StockReservation.Status.ACTIVE)
+                    .expiresAt(now.plus(reservationTtl))
+                    .createdAt(now)
+                    .build());
+        });
+
+        reservationRepository.saveAll(reservations);
+        products.values().forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.saved(product)));
+    }
+
+    // The order was paid or moved on; its units are sold for good
+    @Transactional
+    public void commit(UUID orderId) {
+        reservationRepository.transitionByOrderId(orderId, StockReservation.Status.ACTIVE, StockReservation.Status.COMMITTED);
+    }
+
+    // Gives back every unit the order still holds. Safe to call twice: each reservation
+    // is released by a conditional update, and only the caller that wins it restocks.
+    @Transactional
+    public void release(Order order) {
+        List<StockReservation> reservations = reservationRepository.findByOrderIdAndStatusIn(order.getOrderId(), HELD);
+
+        // Orders placed before reservations existed restock from their items
+        if (reservations.isEmpty() && !reservationRepository.existsByOrderOrderId(order.getOrderId())) {
+            for (OrderItem item : order.getItems()) {
+                productRepository.incrementStock(item.getProduct().getProductId(), item.getQuantity());
+                domainEventOutbox.append(new StockChangedEvent(item.getProduct().getProductId(), item.getQuantity()));
+                eventPublisher.publishEvent(ProductChangedEvent.saved(item.getProduct()));
+            }
+            return;
+        }
+
+        for (StockReservation reservation : reservations) {
+            int released = reservationRepository.transition(
+                    reservation.getReservationId(), reservation.getStatus(), StockReservation.Status.RELEASED);
+            if (released == 1) {
+                productRepository.incrementStock(reservation.getProduct().getProductId(), reservation.getQuantity());
+                domainEventOutbox.append(new StockChangedEvent(reservation.getProduct().getProductId(), reservation.getQuantity()));
+                eventPublisher.publishEvent(ProductChangedEvent.saved(reservation.getProduct()));
+            }
+        }
+    }
+
+    // When enabled, cancels orders still PENDING when their reservation expires and returns the stock.
+    // Cash-on-delivery orders are never paid up front, so their reservations are committed instead.
+    @Scheduled(fixedDelayString = "${app.stock.reservation-sweep-interval:PT1M}")
+    @Transactional
+    public void releaseExpired() {
+        if (!expiryEnabled) {
+            return;
+        }
+        List<StockReservation> expired = reservationRepository.findExpiring(
+                StockReservation.Status.ACTIVE, LocalDateTime.now(), PageRequest.of(0, EXPIRY_BATCH_SIZE));
+
+        Set<UUID> orderIds = new LinkedHashSet<>();
+        expired.forEach(reservation -> orderIds.add(reservation.getOrder().getOrderId()));
+
+        int cancelled = 0;
+        for (UUID orderId : orderIds) {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null) {
+                continue;
+            }
+            if (CASH_ON_DELIVERY.equalsIgnoreCase(order.getPaymentMethod())) {
+                commit(orderId);
+                continue;
+            }
+            boolean cancelledNow = orderRepository.transitionStatus(orderId, OrderStatus.PENDING, OrderStatus.CANCELLED) == 1;
+            if (cancelledNow) {
+                cancelled++;
+            }
+            // The loaded order does not see the bulk update above
+            if (cancelledNow || order.getStatus() == OrderStatus.CANCELLED) {
+                release(order);
+                if (cancelledNow) {
+                    domainEventOutbox.append(new OrderCancelledEvent(orderId, order.getUser().getUserId()));
+                    eventPublisher.publishEvent(new OrderChangedEvent(orderId));
+                }
+            } else {
+                commit(orderId);
+            }
+        }
+
+        if (cancelled > 0) {
+            System.out.println("Cancelled " + cancelled + " unpaid orders with expired stock reservations");
+        }
+    }
+}
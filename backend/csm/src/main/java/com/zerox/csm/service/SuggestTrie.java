@@ -0,0 +1,148 @@
+package com.zerox.csm.service;
+
+import java.util.*;
+
+// Immutable completion trie. Every node keeps the ids of its heaviest entries,
+// so a prefix lookup costs O(prefix length) and never walks the subtree.
+final class SuggestTrie {
+
+    private static final int[] NO_ENTRIES = new int[0];
+
+    private final Node root;
+    private final double[] weights;
+
+    private SuggestTrie(Node root, double[] weights) {
+        this.root = root;
+        this.weights = weights;
+    }
+
+    static SuggestTrie build(List<String> keys, List<Integer> entryIds, double[] weights, int topK) {
+        MutableNode root = new MutableNode();
+        for (int i = 0; i < keys.size(); i++) {
+            MutableNode node = root;
+            int entryId = entryIds.get(i);
+            node.offer(entryId, weights, topK);
+            for (char c : keys.get(i).toCharArray()) {
+                node = node.children.computeIfAbsent(c, key -> new MutableNode());
+                node.offer(entryId, weights, topK);
+            }
+        }
+        return new SuggestTrie(root.freeze(), weights);
+    }
+
+    // Returns entry id -> smallest edit distance between the query and a prefix leading to the entry
+    Map<Integer, Integer> lookup(String query, int maxEdits) {
+        Map<Integer, Integer> matches = new LinkedHashMap<>();
+
+        // Exact prefix first, it is the common case while typing
+        Node node = root;
+        for (int i = 0; i < query.length() && node != null; i++) {
+            node = node.child(query.charAt(i));
+        }
+        if (node != null) {
+            for (int entryId : node.topEntries) {
+                matches.put(entryId, 0);
+            }
+        }
+
+        if (maxEdits > 0) {
+            int[] firstRow = new int[query.length() + 1];
+            for (int i = 0; i < firstRow.length; i++) {
+                firstRow[i] = i;
+            }
+            for (int i = 0; i < root.labels.length; i++) {
+                collectFuzzy(root.children[i], root.labels[i], query, firstRow, maxEdits, matches);
+            }
+        }
+        return matches;
+    }
+
+    double weight(int entryId) {
+        return weights[entryId];
+    }
+
+    // Depth-first walk carrying one Levenshtein row per trie level; branches are pruned
+    // as soon as every cell of the row exceeds the edit budget.
+    private void collectFuzzy(Node node, char label, String query, int[] previousRow, int maxEdits,
+                              Map<Integer, Integer> matches) {
+        int columns = query.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < columns; i++) {
+            int substitution = previousRow[i - 1] + (query.charAt(i - 1) == label ? 0 : 1);
+            row[i] = Math.min(substitution, Math.min(row[i - 1] + 1, previousRow[i] + 1));
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        int distance = row[columns - 1];
+        if (distance <= maxEdits) {
+            // The whole query is matched at this node; its top entries cover the subtree
+            for (int entryId : node.topEntries) {
+                matches.merge(entryId, distance, Math::min);
+            }
+            if (distance == 0) {
+                return;
+            }
+        }
+
+        if (rowMin <= maxEdits) {
+            for (int i = 0; i < node.labels.length; i++) {
+                collectFuzzy(node.children[i], node.labels[i], query, row, maxEdits, matches);
+            }
+        }
+    }
+
+    private static final class Node {
+        private final char[] labels;
+        private final Node[] children;
+        private final int[] topEntries;
+
+        private Node(char[] labels, Node[] children, int[] topEntries) {
+            this.labels = labels;
+            this.children = children;
+            this.topEntries = topEntries;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    private static final class MutableNode {
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private final List<Integer> topEntries = new ArrayList<>(2);
+
+        private void offer(int entryId, double[] weights, int topK) {
+            if (topEntries.contains(entryId)) {
+                return;
+            }
+            int position = topEntries.size();
+            while (position > 0 && weights[topEntries.get(position - 1)] < weights[entryId]) {
+                position--;
+            }
+            if (position < topK) {
+                topEntries.add(position, entryId);
+                if (topEntries.size() > topK) {
+                    topEntries.remove(topEntries.size() - 1);
+                }
+            }
+        }
+
+        private Node freeze() {
+            char[] labels = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                frozen[i] = child.getValue().freeze();
+                i++;
+            }
+            int[] entries = topEntries.isEmpty()
+                    ? NO_ENTRIES
+                    : topEntries.stream().mapToInt(Integer::intValue).toArray();
+            return new Node(labels, frozen, entries);
+        }
+    }
+}
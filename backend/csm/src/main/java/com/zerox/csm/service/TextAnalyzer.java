@@ -0,0 +1,95 @@
+package com.zerox.csm.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Tokenizer and light English stemmer shared by the product text index and its queries.
+// Both sides must go through the same analyzer, otherwise terms will not line up.
+final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is",
+            "it", "of", "on", "or", "the", "to", "with"
+    );
+
+    private TextAnalyzer() {
+    }
+
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean tokenChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    terms.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Strips common inflections from purely alphabetic tokens so "laptops" matches "laptop".
+    // Model numbers and sizes such as "i7" or "16gb" are left untouched.
+    static String stem(String token) {
+        if (token.length() <= 3 || !isAlphabetic(token)) {
+            return token;
+        }
+
+        if (token.endsWith("ies") && token.length() > 4) {
+            return token.substring(0, token.length() - 3) + "y";
+        }
+        if (token.endsWith("sses") || token.endsWith("xes") || token.endsWith("ches") || token.endsWith("shes")) {
+            return token.substring(0, token.length() - 2);
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us") && !token.endsWith("is")) {
+            return token.substring(0, token.length() - 1);
+        }
+        if (token.endsWith("ing") && hasVowel(token, token.length() - 3) && token.length() > 6) {
+            return undouble(token.substring(0, token.length() - 3));
+        }
+        if (token.endsWith("ed") && hasVowel(token, token.length() - 2) && token.length() > 5) {
+            return undouble(token.substring(0, token.length() - 2));
+        }
+        return token;
+    }
+
+    private static boolean isAlphabetic(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isLetter(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasVowel(String token, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(token.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "shipped" -> "shipp" -> "ship"
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length >= 2 && stem.charAt(length - 1) == stem.charAt(length - 2)
+                && "lsz".indexOf(stem.charAt(length - 1)) < 0) {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+}
@@ -2,6 +2,7 @@ package com.zerox.csm.service;
 
 import com.zerox.csm.dto.UserManagementDto;
 import com.zerox.csm.dto.UserManagementDto.*;
+import com.zerox.csm.event.UserAccountChangedEvent;
 import com.zerox.csm.exception.ResourceNotFoundException;
 import com.zerox.csm.exception.ValidationException;
 import com.zerox.csm.model.Repair;
@@ -12,6 +13,7 @@ import com.zerox.csm.dto.UserManagementDto.UserStatsResponse;
 import com.zerox.csm.dto.UserManagementDto.UserSummaryResponse;
 import com.zerox.csm.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -34,6 +36,7 @@ public class UserManagementService {
     private final CustomerAddressRepository customerAddressRepository;
     private final CartRepository cartRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all users with pagination
@@ -70,7 +73,9 @@ public class UserManagementService {
         }
 
         user.setRole(request.role());
+        user.setTokenVersion(user.getTokenVersion() + 1);
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(savedUser.getUserId(), savedUser.getEmail()));
         return mapToUserSummaryResponse(savedUser);
     }
 
@@ -88,8 +93,11 @@ public class UserManagementService {
             throw new ValidationException("Email is already in use");
         }
 
+        String previousEmail = user.getEmail();
         user.setEmail(request.email());
+        user.setTokenVersion(user.getTokenVersion() + 1);
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(savedUser.getUserId(), previousEmail));
         return mapToUserSummaryResponse(savedUser);
     }
 
@@ -129,12 +137,16 @@ public class UserManagementService {
         if (!request.active()) {
             if (!user.isDeleted()) {
                 user.setDeleted(true);
+                user.setTokenVersion(user.getTokenVersion() + 1);
                 user = userRepository.save(user);
+                eventPublisher.publishEvent(new UserAccountChangedEvent(user.getUserId(), user.getEmail()));
             }
         } else {
             if (user.isDeleted()) {
                 user.setDeleted(false);
+                user.setTokenVersion(user.getTokenVersion() + 1);
                 user = userRepository.save(user);
+                eventPublisher.publishEvent(new UserAccountChangedEvent(user.getUserId(), user.getEmail()));
             }
         }
 
@@ -173,6 +185,7 @@ public class UserManagementService {
                 int repairsDeleted = repairRepository.deleteByUser(user);
                 int ordersDeleted = orderRepository.deleteByUserUserId(userId);
                 userRepository.hardDelete(userId);
+                eventPublisher.publishEvent(new UserAccountChangedEvent(user.getUserId(), user.getEmail()));
             } catch (Exception e) {
                 String errorMsg = String.format("Failed to delete user with ID: %s. Error: %s", userId, e.getMessage());
                 throw new ValidationException("Failed to delete user and related records. Please try again or contact support.");
@@ -0,0 +1,73 @@
+package com.zerox.csm.bench;
+
+import com.zerox.csm.CsmApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Boots the application without the web server for the benchmarks in this package. The database comes
+// from BENCH_DB_URL, BENCH_DB_USERNAME and BENCH_DB_PASSWORD; point it at a scratch MySQL schema, since
+// the benchmarks write to it and Hibernate creates the tables there. Without BENCH_DB_URL an in-memory
+// H2 database in MySQL mode is used, which is only good for checking that a benchmark runs.
+final class BenchmarkContext {
+
+    private static final String H2_URL = "jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE,YEAR,MONTH,DAY,KEY";
+
+    private BenchmarkContext() {
+    }
+
+    // Passed as command line arguments, which take precedence over application.properties
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CsmApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(properties().entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+    }
+
+    static String url() {
+        String url = System.getenv("BENCH_DB_URL");
+        return url != null && !url.isBlank() ? url : H2_URL;
+    }
+
+    static boolean isH2() {
+        return url().startsWith("jdbc:h2:");
+    }
+
+    static String describe(ConfigurableApplicationContext context) {
+        String database = context.getBean(JdbcTemplate.class).execute((Connection connection) ->
+                connection.getMetaData().getDatabaseProductName() + " " + connection.getMetaData().getDatabaseProductVersion());
+        return database + (isH2() ? " (in memory, smoke run only)" : "");
+    }
+
+    private static Map<String, Object> properties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", url());
+        properties.put("spring.datasource.username", env("BENCH_DB_USERNAME", isH2() ? "sa" : "root"));
+        properties.put("spring.datasource.password", env("BENCH_DB_PASSWORD", ""));
+        properties.put("spring.datasource.driver-class-name", isH2() ? "org.h2.Driver" : "com.mysql.cj.jdbc.Driver");
+        properties.put("spring.jpa.properties.hibernate.dialect",
+                "org.hibernate.dialect.MySQLDialect");
+        properties.put("spring.jpa.hibernate.ddl-auto", isH2() ? "create" : "update");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.profiles.active", "bench");
+        properties.put("logging.level.com.zerox.csm", "WARN");
+        properties.put("application.security.jwt.secret-key", "YmVuY2htYXJrLW9ubHktc2VjcmV0LWtleS1ub3QtZm9yLXVzZQ==");
+        properties.put("application.security.jwt.expiration", "3600000");
+        properties.put("sendgrid.api.key", "benchmark");
+        properties.put("STRIPE_SECRET_KEY", "benchmark");
+        properties.put("app.vite.endpoint", "http://localhost");
+        properties.put("app.upload.dir", System.getProperty("java.io.tmpdir") + "/csm-bench-uploads");
+        return properties;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
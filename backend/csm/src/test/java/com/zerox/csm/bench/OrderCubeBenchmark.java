@@ -0,0 +1,132 @@
+package com.zerox.csm.bench;
+
+import com.zerox.csm.dto.OlapDto;
+import com.zerox.csm.model.OrderStatus;
+import com.zerox.csm.repository.OrderRepository;
+import com.zerox.csm.service.OrderCube;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+// Query latency of OrderCube over a synthetic snapshot. The cube answers from memory, so the database
+// only matters for the load; the repository is stubbed to stream generated order facts and the
+// application context is not started:
+//
+//   mvn -B spring-boot:test-run -Dspring-boot.run.main-class=com.zerox.csm.bench.OrderCubeBenchmark
+//
+// Optional arguments: orders (default 1,000,000), measured runs per query (default 50).
+// Latency is wall clock around query(), so it includes validation, the parallel scan and sorting the groups.
+public class OrderCubeBenchmark {
+
+    private static final String[] PAYMENT_METHODS = {"CARD", "CASH_ON_DELIVERY", "BANK_TRANSFER", "WALLET"};
+
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        OrderCube cube = new OrderCube(factRepository(facts(orders)), new NoTransactionManager());
+        cube.rebuild();
+
+        Map<String, OlapDto.CubeQueryRequest> queries = new LinkedHashMap<>();
+        queries.put("total, no filter", new OlapDto.CubeQueryRequest(
+                List.of(), Map.of(), null, null, null));
+        queries.put("status", new OlapDto.CubeQueryRequest(
+                List.of("status"), Map.of(), null, null, null));
+        queries.put("city x month, 6 months, 2 statuses", new OlapDto.CubeQueryRequest(
+                List.of("city", "month"),
+                Map.of("status", List.of("delivered", "shipped")),
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 8, 31), 100));
+        queries.put("coupon x payment x tier", new OlapDto.CubeQueryRequest(
+                List.of("coupon", "payment_method", "loyalty_tier"), Map.of(), null, null, 1000));
+
+        System.out.printf("%,d orders, %d cores, %d runs per query%n",
+                orders, Runtime.getRuntime().availableProcessors(), runs);
+        queries.forEach((name, query) -> {
+            // Untimed runs for the JIT and the fork-join pool
+            for (int i = 0; i < 20; i++) {
+                cube.query(query);
+            }
+            double[] millis = new double[runs];
+            long groups = 0;
+            for (int i = 0; i < runs; i++) {
+                long started = System.nanoTime();
+                groups = cube.query(query).orElseThrow().groups().size();
+                millis[i] = (System.nanoTime() - started) / 1e6;
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-36s %5d groups: median %6.1f ms, p95 %6.1f ms, max %6.1f ms%n",
+                    name, groups, millis[runs / 2], millis[(int) Math.ceil(runs * 0.95) - 1], millis[runs - 1]);
+        });
+    }
+
+    // Three years of orders over 50 cities, 20 coupons on a fifth of the orders and four payment methods
+    private static List<OlapDto.OrderFactRow> facts(int count) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        List<OlapDto.OrderFactRow> facts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BigDecimal total = BigDecimal.valueOf(1_000 + random.nextInt(500_000), 2);
+            BigDecimal discount = random.nextInt(5) == 0 ? total.movePointLeft(1).setScale(2, RoundingMode.DOWN) : BigDecimal.ZERO;
+            facts.add(new OlapDto.OrderFactRow(
+                    UUID.randomUUID(),
+                    OrderStatus.values()[random.nextInt(OrderStatus.values().length)],
+                    PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)],
+                    discount.signum() > 0 ? "COUPON" + random.nextInt(20) : null,
+                    "City " + random.nextInt(50),
+                    random.nextInt(15_000),
+                    start.plusMinutes(random.nextInt(3 * 365 * 24 * 60)),
+                    (long) (1 + random.nextInt(5)),
+                    total,
+                    discount,
+                    total.subtract(discount)
+            ));
+        }
+        return facts;
+    }
+
+    private static OrderRepository factRepository(List<OlapDto.OrderFactRow> facts) {
+        return (OrderRepository) Proxy.newProxyInstance(
+                OrderCubeBenchmark.class.getClassLoader(),
+                new Class<?>[] {OrderRepository.class},
+                (proxy, method, methodArgs) -> switch (method.getName()) {
+                    case "streamOrderFacts" -> facts.stream();
+                    case "findOrderFacts" -> List.of();
+                    case "toString" -> "OrderRepository stub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // The cube only opens a transaction to keep its streaming cursor alive
+    private static class NoTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.zerox.csm.bench;
+
+import com.zerox.csm.dto.ProductDto;
+import com.zerox.csm.model.Category;
+import com.zerox.csm.model.Product;
+import com.zerox.csm.repository.CategoryRepository;
+import com.zerox.csm.repository.ProductRepository;
+import com.zerox.csm.service.ProductService;
+import com.zerox.csm.service.StockAdjustmentService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Throughput of the batch stock endpoint's service (StockAdjustmentService.adjustStock) against the
+// per-item one (ProductService.updateStock), both called in-process through the full application
+// context so each side pays for its real JPA, journal, outbox and event work. The database is the one
+// BenchmarkContext points at; run it against MySQL (or MariaDB) for numbers that mean anything for production:
+//
+//   BENCH_DB_URL=jdbc:mysql://localhost:3306/csm_bench BENCH_DB_USERNAME=... BENCH_DB_PASSWORD=... \
+//   mvn -B spring-boot:test-run -Dspring-boot.run.main-class=com.zerox.csm.bench.StockAdjustmentBenchmark
+//
+// Optional arguments: products (default 2000), batch size (default 500), measured rounds (default 10).
+public class StockAdjustmentBenchmark {
+
+    public static void main(String[] args) {
+        int productCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.start()) {
+            List<UUID> ids = createProducts(context, productCount);
+            ProductService productService = context.getBean(ProductService.class);
+            StockAdjustmentService stockAdjustmentService = context.getBean(StockAdjustmentService.class);
+
+            // Spread over the whole product range, so neither side keeps hitting the same few rows
+            List<List<ProductDto.StockAdjustment>> batches = new ArrayList<>();
+            for (int from = 0; from + batchSize <= ids.size(); from += batchSize) {
+                List<ProductDto.StockAdjustment> batch = new ArrayList<>(batchSize);
+                for (UUID id : ids.subList(from, from + batchSize)) {
+                    batch.add(new ProductDto.StockAdjustment(id, 1));
+                }
+                batches.add(batch);
+            }
+            if (batches.isEmpty()) {
+                throw new IllegalArgumentException("Need at least " + batchSize + " products");
+            }
+
+            Runnable batched = () -> {
+                for (int round = 0; round < rounds; round++) {
+                    stockAdjustmentService.adjustStock(
+                            new ProductDto.BatchStockUpdateRequest(batches.get(round % batches.size()), null));
+                }
+            };
+            Runnable perItem = () -> {
+                for (int round = 0; round < rounds; round++) {
+                    for (ProductDto.StockAdjustment item : batches.get(round % batches.size())) {
+                        productService.updateStock(
+                                new ProductDto.StockUpdateRequest(item.productId(), item.quantityChange(), null));
+                    }
+                }
+            };
+
+            // One untimed pass each for JIT and connection pool warm-up. The per-item path leaves one
+            // StockChangedEvent per item for the relay; those are drained untimed before each timed run,
+            // so they neither slow the batch down nor count against the per-item side.
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            batched.run();
+            perItem.run();
+            awaitOutboxDrained(jdbcTemplate);
+
+            long items = (long) rounds * batchSize;
+            double perItemRate = items / seconds(perItem);
+            awaitOutboxDrained(jdbcTemplate);
+            double batchRate = items / seconds(batched);
+            System.out.printf("Database:  %s%n", BenchmarkContext.describe(context));
+            System.out.printf("Per item:  %,.0f items/s%n", perItemRate);
+            System.out.printf("Batch %d: %,.0f items/s%n", batchSize, batchRate);
+            System.out.printf("Speed-up:  %.1fx%n", batchRate / perItemRate);
+        }
+    }
+
+    private static List<UUID> createProducts(ConfigurableApplicationContext context, int count) {
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        Category category = categoryRepository.save(Category.builder()
+                .name("Benchmark " + UUID.randomUUID())
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        String prefix = "BENCH-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .name("Benchmark product " + i)
+                    .description("")
+                    .price(new BigDecimal("10.00"))
+                    .category(category)
+                    .sku(prefix + i)
+                    .stockQuantity(1_000)
+                    .lowStockThreshold(Product.DEFAULT_LOW_STOCK_THRESHOLD)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        return productRepository.saveAll(products).stream().map(Product::getProductId).toList();
+    }
+
+    private static void awaitOutboxDrained(JdbcTemplate jdbcTemplate) {
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM domain_events WHERE status = 'PENDING'", Long.class) > 0) {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    private static double seconds(Runnable work) {
+        long started = System.nanoTime();
+        work.run();
+        return (System.nanoTime() - started) / 1e9;
+    }
+}
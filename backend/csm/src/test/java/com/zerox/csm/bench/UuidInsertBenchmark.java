@@ -0,0 +1,148 @@
+package com.zerox.csm.bench;
+
+import com.zerox.csm.model.id.UuidBytes;
+import com.zerox.csm.model.id.UuidV7;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// Insert throughput and on-disk size of the orders and inventory_logs tables keyed by random v4 UUIDs
+// against time-ordered v7 ones. Each run copies the table Hibernate created (CREATE TABLE ... LIKE keeps
+// the primary and secondary keys but not the foreign keys) and fills it in 500-row multi-row INSERTs,
+// one transaction each, the way InventoryJournal writes. MySQL or MariaDB only; see BenchmarkContext:
+//
+//   BENCH_DB_URL=jdbc:mysql://localhost:3306/csm_bench BENCH_DB_USERNAME=... BENCH_DB_PASSWORD=... \
+//   mvn -B spring-boot:test-run -Dspring-boot.run.main-class=com.zerox.csm.bench.UuidInsertBenchmark
+//
+// Optional argument: rows per table and key type (default 1,000,000). The gap only opens once the table
+// outgrows the InnoDB buffer pool, so size it against innodb_buffer_pool_size.
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    private record Table(String name, String columns, int parameters, RowWriter writer) {
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        int write(PreparedStatement statement, int index, UUID id, Random random) throws SQLException;
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        if (BenchmarkContext.isH2()) {
+            throw new IllegalStateException("Set BENCH_DB_URL to a MySQL or MariaDB schema; H2 has no clustered index to compare");
+        }
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.start()) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+            // A few thousand users and products, so the secondary keys see realistic fan-out
+            List<byte[]> users = randomKeys(1_000);
+            List<byte[]> products = randomKeys(5_000);
+
+            List<Table> tables = List.of(
+                    new Table("orders",
+                            "order_id, created_at, discount_amount, final_amount, payment_method, status, total_amount, user_id",
+                            8,
+                            (statement, index, id, random) -> {
+                                BigDecimal total = BigDecimal.valueOf(1_000 + random.nextInt(500_000), 2);
+                                statement.setBytes(index++, UuidBytes.toBytes(id));
+                                statement.setTimestamp(index++, new Timestamp(System.currentTimeMillis()));
+                                statement.setBigDecimal(index++, BigDecimal.ZERO);
+                                statement.setBigDecimal(index++, total);
+                                statement.setString(index++, random.nextBoolean() ? "CARD" : "CASH_ON_DELIVERY");
+                                statement.setString(index++, "PENDING");
+                                statement.setBigDecimal(index++, total);
+                                statement.setBytes(index++, users.get(random.nextInt(users.size())));
+                                return index;
+                            }),
+                    new Table("inventory_logs",
+                            "log_id, change_type, new_quantity, old_quantity, timestamp, product_id",
+                            6,
+                            (statement, index, id, random) -> {
+                                int old = random.nextInt(1_000);
+                                statement.setBytes(index++, UuidBytes.toBytes(id));
+                                statement.setString(index++, "SALE");
+                                statement.setInt(index++, Math.max(0, old - 1));
+                                statement.setInt(index++, old);
+                                statement.setTimestamp(index++, new Timestamp(System.currentTimeMillis()));
+                                statement.setBytes(index++, products.get(random.nextInt(products.size())));
+                                return index;
+                            })
+            );
+
+            System.out.printf("Database: %s, innodb_buffer_pool_size %d MB, %,d rows per run%n",
+                    BenchmarkContext.describe(context),
+                    jdbcTemplate.queryForObject("SELECT @@innodb_buffer_pool_size", Long.class) >> 20,
+                    rows);
+            for (Table table : tables) {
+                run(jdbcTemplate, transactionTemplate, table, "v4", UUID::randomUUID, rows);
+                run(jdbcTemplate, transactionTemplate, table, "v7", UuidV7::next, rows);
+            }
+        }
+    }
+
+    private static void run(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            Table table,
+            String keyType,
+            Supplier<UUID> ids,
+            int rows
+    ) {
+        String copy = "bench_" + table.name() + "_" + keyType;
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + copy);
+        jdbcTemplate.execute("CREATE TABLE " + copy + " LIKE " + table.name());
+
+        String row = "(" + String.join(", ", Collections.nCopies(table.parameters(), "?")) + ")";
+        String sql = "INSERT INTO " + copy + " (" + table.columns() + ") VALUES "
+                + String.join(", ", Collections.nCopies(BATCH_SIZE, row));
+        Random random = new Random(42);
+
+        long started = System.nanoTime();
+        for (int done = 0; done < rows; done += BATCH_SIZE) {
+            List<UUID> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(ids.get());
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sql, statement -> {
+                int index = 1;
+                for (UUID id : batch) {
+                    index = table.writer().write(statement, index, id, random);
+                }
+            }));
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        jdbcTemplate.execute("ANALYZE TABLE " + copy);
+        Map<String, Object> size = jdbcTemplate.queryForMap(
+                "SELECT data_length, index_length FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?",
+                copy);
+        System.out.printf("%-15s %s: %,9.0f rows/s, data %,5d MB, secondary indexes %,5d MB%n",
+                table.name(), keyType, rows / seconds,
+                ((Number) size.get("data_length")).longValue() >> 20,
+                ((Number) size.get("index_length")).longValue() >> 20);
+        jdbcTemplate.execute("DROP TABLE " + copy);
+    }
+
+    private static List<byte[]> randomKeys(int count) {
+        List<byte[]> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(UuidBytes.toBytes(UUID.randomUUID()));
+        }
+        return keys;
+    }
+}